@@ -0,0 +1,58 @@
+package com.tutor_management.backend.benchmark;
+
+import com.tutor_management.backend.dto.request.InvoiceRequest;
+import com.tutor_management.backend.dto.response.InvoiceResponse;
+import com.tutor_management.backend.service.InvoiceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// InvoiceService.generateInvoice: truy vấn tổng hợp, tính tổng, hash nội dung, tra snapshot, dựng response.
+// Dữ liệu không đổi giữa các lần gọi nên đây là đường "tải lại báo giá đã chốt" (không cấp số mới).
+// Throughput cho ops/s, SampleTime cho p99; chạy với -prof gc để có tốc độ cấp phát.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvoiceAggregationBenchmark {
+
+    @Param({"1", "30", "300"})
+    public int items;
+
+    @Param({"SINGLE", "MULTI", "ALL"})
+    public InvoiceFixtures.Mode mode;
+
+    private InvoiceFixtures fixtures;
+    private InvoiceService invoiceService;
+    private InvoiceRequest request;
+
+    @Setup
+    public void setUp() {
+        fixtures = InvoiceFixtures.start(items);
+        invoiceService = fixtures.invoiceService();
+        request = fixtures.request(mode);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public InvoiceResponse generateInvoice() {
+        return invoiceService.generateInvoice(request);
+    }
+}
@@ -0,0 +1,93 @@
+package com.tutor_management.backend.benchmark;
+
+import com.tutor_management.backend.BackendApplication;
+import com.tutor_management.backend.dto.request.InvoiceRequest;
+import com.tutor_management.backend.dto.request.SessionRecordRequest;
+import com.tutor_management.backend.dto.request.StudentRequest;
+import com.tutor_management.backend.service.InvoiceService;
+import com.tutor_management.backend.service.SessionRecordService;
+import com.tutor_management.backend.service.StudentService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// ============= Benchmark Fixtures =============
+// Context Spring thật trên H2 trong bộ nhớ (profile "test"), không cần MySQL.
+// Dữ liệu được tạo qua service nên mọi repository method InvoiceService gọi tới đều chạy đúng như production.
+// QR được vẽ ngay trong PDF nên không có gọi mạng nào cần stub.
+public final class InvoiceFixtures implements AutoCloseable {
+
+    static final String MONTH = "2025-03";
+    static final long PRICE_PER_HOUR = 200_000L;
+
+    public enum Mode { SINGLE, MULTI, ALL }
+
+    private final ConfigurableApplicationContext context;
+    private final List<Long> studentIds;
+
+    private InvoiceFixtures(ConfigurableApplicationContext context, List<Long> studentIds) {
+        this.context = context;
+        this.studentIds = studentIds;
+    }
+
+    // `items` học sinh trong tháng; học sinh đầu tiên có `items` buổi,
+    // nên mỗi chế độ đều ra báo giá `items` dòng
+    static InvoiceFixtures start(int items) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run();
+
+        StudentService studentService = context.getBean(StudentService.class);
+        List<Long> studentIds = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            studentIds.add(studentService.createStudent(new StudentRequest(
+                    String.format("Học sinh %03d", i + 1), null, "T2", PRICE_PER_HOUR, null, true, MONTH)).getId());
+        }
+
+        LocalDate firstDay = LocalDate.parse(MONTH + "-01");
+        List<SessionRecordRequest> sessions = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            String day = firstDay.plusDays(i % firstDay.lengthOfMonth()).toString();
+            sessions.add(new SessionRecordRequest(studentIds.get(0), MONTH, 1, 2.0, day, null));
+            if (i > 0) {
+                sessions.add(new SessionRecordRequest(studentIds.get(i), MONTH, 4, 8.0, day, null));
+            }
+        }
+        context.getBean(SessionRecordService.class).createRecords(sessions);
+
+        return new InvoiceFixtures(context, studentIds);
+    }
+
+    InvoiceService invoiceService() {
+        return context.getBean(InvoiceService.class);
+    }
+
+    InvoiceRequest request(Mode mode) {
+        return switch (mode) {
+            case SINGLE -> InvoiceRequest.builder()
+                    .studentId(studentIds.get(0))
+                    .month(MONTH)
+                    .build();
+            case MULTI -> InvoiceRequest.builder()
+                    .month(MONTH)
+                    .multipleStudents(true)
+                    .selectedStudentIds(studentIds)
+                    .build();
+            case ALL -> InvoiceRequest.builder()
+                    .month(MONTH)
+                    .allStudents(true)
+                    .build();
+        };
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,67 @@
+package com.tutor_management.backend.benchmark;
+
+import com.tutor_management.backend.dto.response.InvoiceResponse;
+import com.tutor_management.backend.service.PDFGeneratorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+// Render PDF báo giá (không gồm cache file): layout, font subset, QR, nén.
+// PDF ghi vào stream đếm byte để không đo I/O đĩa; kết quả trả về là kích thước file.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvoicePdfBenchmark {
+
+    @Param({"1", "30", "300"})
+    public int items;
+
+    @Param({"SINGLE", "MULTI", "ALL"})
+    public InvoiceFixtures.Mode mode;
+
+    private PDFGeneratorService pdfGeneratorService;
+    private InvoiceResponse invoice;
+
+    @Setup
+    public void setUp() {
+        pdfGeneratorService = new PDFGeneratorService();
+        try (InvoiceFixtures fixtures = InvoiceFixtures.start(items)) {
+            invoice = fixtures.invoiceService().generateInvoice(fixtures.request(mode));
+        }
+    }
+
+    @Benchmark
+    public long renderPdf() throws Exception {
+        CountingOutputStream out = new CountingOutputStream();
+        pdfGeneratorService.writeInvoicePDF(invoice, out);
+        return out.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
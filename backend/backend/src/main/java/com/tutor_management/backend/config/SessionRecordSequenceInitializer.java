@@ -0,0 +1,68 @@
+package com.tutor_management.backend.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+
+/**
+ * SessionRecord.id trước đây là AUTO_INCREMENT. Sau khi chuyển sang sequence (bảng session_records_seq),
+ * giá trị next_val phải lớn hơn id lớn nhất đang có, nếu không các INSERT mới sẽ trùng khoá.
+ * Chạy sau khi Hibernate tạo/cập nhật schema và trước khi server nhận request; căn chỉnh lỗi thì
+ * dừng khởi động thay vì để các batch INSERT sau đó trùng id cũ.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SessionRecordSequenceInitializer implements SmartInitializingSingleton {
+
+    // Phải khớp với allocationSize của @SequenceGenerator trên SessionRecord
+    private static final int ALLOCATION_SIZE = 50;
+    private static final String SEQUENCE_TABLE = "session_records_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        alignSequenceWithExistingIds();
+    }
+
+    public void alignSequenceWithExistingIds() {
+        if (!sequenceTableExists()) {
+            // Database có sequence thật (không phải bảng emulation), do Hibernate tạo cùng schema
+            log.info("{} is a native sequence, no alignment needed", SEQUENCE_TABLE);
+            return;
+        }
+
+        int updated;
+        try {
+            updated = jdbcTemplate.update(
+                    "UPDATE " + SEQUENCE_TABLE + " SET next_val = GREATEST(next_val, " +
+                            "(SELECT COALESCE(MAX(id), 0) + ? + 1 FROM session_records))",
+                    ALLOCATION_SIZE);
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Could not align " + SEQUENCE_TABLE + " with existing session ids", e);
+        }
+        if (updated != 1) {
+            throw new IllegalStateException(SEQUENCE_TABLE + " must contain exactly 1 row, found " + updated);
+        }
+        log.info("Aligned {} with existing session ids", SEQUENCE_TABLE);
+    }
+
+    private boolean sequenceTableExists() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String tableName = metaData.storesUpperCaseIdentifiers() ? SEQUENCE_TABLE.toUpperCase() : SEQUENCE_TABLE;
+            try (ResultSet tables = metaData.getTables(
+                    connection.getCatalog(), null, tableName, new String[]{"TABLE"})) {
+                return tables.next();
+            }
+        }));
+    }
+}
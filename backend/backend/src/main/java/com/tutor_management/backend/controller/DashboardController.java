@@ -2,10 +2,18 @@ package com.tutor_management.backend.controller;
 
 import com.tutor_management.backend.dto.response.DashboardStats;
 import com.tutor_management.backend.dto.response.MonthlyStats;
+import com.tutor_management.backend.dto.response.RollupRebuildReport;
+import com.tutor_management.backend.service.DashboardEventService;
 import com.tutor_management.backend.service.DashboardService;
+import com.tutor_management.backend.service.MonthlyRollupService;
+import com.tutor_management.backend.service.StatsCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -17,14 +25,48 @@ import java.util.List;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final MonthlyRollupService monthlyRollupService;
+    private final StatsCache statsCache;
+    private final DashboardEventService dashboardEventService;
 
     @GetMapping("/stats")
-    public ResponseEntity<DashboardStats> getDashboardStats(@RequestParam String currentMonth) {
-        return ResponseEntity.ok(dashboardService.getDashboardStats(currentMonth));
+    public ResponseEntity<DashboardStats> getDashboardStats(@RequestParam String currentMonth, WebRequest request) {
+        // ETag theo version cache: 304 trả về mà không gọi service / database
+        String etag = statsCache.etag(StatsCache.Region.DASHBOARD, "stats:" + currentMonth);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        DashboardStats stats = statsCache.get(StatsCache.Region.DASHBOARD, "stats:" + currentMonth,
+                () -> dashboardService.getDashboardStats(currentMonth));
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(stats);
     }
 
     @GetMapping("/monthly-stats")
-    public ResponseEntity<List<MonthlyStats>> getMonthlyStats() {
-        return ResponseEntity.ok(dashboardService.getMonthlyStats());
+    public ResponseEntity<List<MonthlyStats>> getMonthlyStats(WebRequest request) {
+        String etag = statsCache.etag(StatsCache.Region.DASHBOARD, "monthly");
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        List<MonthlyStats> stats = statsCache.get(StatsCache.Region.DASHBOARD, "monthly",
+                dashboardService::getMonthlyStats);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(stats);
     }
-}
\ No newline at end of file
+
+    // Stream SSE các thay đổi (sessions, students, documents, resync) để dashboard không cần polling
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents() {
+        return dashboardEventService.subscribe();
+    }
+
+    // Tính lại monthly_rollup từ session_records và trả về các tháng bị lệch
+    @PostMapping("/rollup/rebuild")
+    public ResponseEntity<RollupRebuildReport> rebuildRollup() {
+        return ResponseEntity.ok(monthlyRollupService.rebuild());
+    }
+}
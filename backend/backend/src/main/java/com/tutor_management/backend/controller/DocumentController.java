@@ -2,19 +2,32 @@ package com.tutor_management.backend.controller;
 
 //import com.tutor_management.backend.dto.*;
 import com.tutor_management.backend.dto.request.DocumentRequest;
+import com.tutor_management.backend.dto.request.DocumentUploadSessionRequest;
+import com.tutor_management.backend.dto.response.DocumentFile;
 import com.tutor_management.backend.dto.response.DocumentResponse;
 import com.tutor_management.backend.dto.response.DocumentStats;
 import com.tutor_management.backend.dto.response.DocumentUploadResponse;
+import com.tutor_management.backend.dto.response.DocumentUploadSessionResponse;
 import com.tutor_management.backend.entity.DocumentCategory;
 import com.tutor_management.backend.service.DocumentService;
+import com.tutor_management.backend.service.DocumentUploadService;
+import com.tutor_management.backend.service.FileRangeSender;
+import com.tutor_management.backend.service.StatsCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/documents")
@@ -23,6 +36,9 @@ import java.util.List;
 public class DocumentController {
 
     private final DocumentService documentService;
+    private final DocumentUploadService documentUploadService;
+    private final StatsCache statsCache;
+    private final FileRangeSender fileRangeSender;
 
     @GetMapping
     public ResponseEntity<List<DocumentResponse>> getAllDocuments() {
@@ -56,32 +72,72 @@ public class DocumentController {
         return ResponseEntity.ok(documentService.uploadDocument(file, request));
     }
 
+    // ============= Chunked Upload (file lớn, tải tiếp được) =============
+
+    @PostMapping("/uploads")
+    public ResponseEntity<DocumentUploadSessionResponse> createUpload(
+            @Valid @RequestBody DocumentUploadSessionRequest request
+    ) {
+        return ResponseEntity.ok(documentUploadService.createUpload(request));
+    }
+
+    // Các chunk đã nhận: client chỉ gửi lại phần còn thiếu
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<DocumentUploadSessionResponse> getUpload(@PathVariable String uploadId) {
+        return ResponseEntity.ok(documentUploadService.getUpload(uploadId));
+    }
+
+    // Body là bytes thô của chunk, đọc thẳng từ request vào file (không multipart)
+    @PutMapping(value = "/uploads/{uploadId}/chunks/{index}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<DocumentUploadSessionResponse> uploadChunk(
+            @PathVariable String uploadId,
+            @PathVariable int index,
+            HttpServletRequest request
+    ) throws IOException {
+        return ResponseEntity.ok(documentUploadService.writeChunk(
+                uploadId, index, request.getContentLengthLong(), request.getInputStream()));
+    }
+
+    @PostMapping("/uploads/{uploadId}/complete")
+    public ResponseEntity<DocumentUploadResponse> completeUpload(@PathVariable String uploadId) {
+        return ResponseEntity.ok(documentUploadService.completeUpload(uploadId));
+    }
+
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResponseEntity<Void> abortUpload(@PathVariable String uploadId) {
+        documentUploadService.abortUpload(uploadId);
+        return ResponseEntity.ok().build();
+    }
+
     @GetMapping("/{id}/download")
-    public ResponseEntity<Resource> downloadDocument(@PathVariable Long id) {
-        DocumentResponse document = documentService.getDocumentById(id);
-        Resource resource = documentService.downloadDocument(id);
+    public void downloadDocument(@PathVariable Long id, HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        DocumentFile file = documentService.getDocumentFile(id);
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(document.getFileType()))
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"" + document.getFileName() + "\"")
-                .body(resource);
+        // Luôn hỏi lại server (304 nếu đã có) để lượt tải vẫn được đếm
+        int status = fileRangeSender.send(file.getPath(), file.getContentHash(), file.getFileType(),
+                ContentDisposition.attachment().filename(file.getFileName(), StandardCharsets.UTF_8).build(),
+                CacheControl.noCache().cachePrivate(), request, response);
+
+        // Chỉ đếm lượt tải cả file, không đếm request từng đoạn (tải tiếp) hay HEAD
+        if ((status == HttpServletResponse.SC_OK || status == HttpServletResponse.SC_NOT_MODIFIED)
+                && !"HEAD".equals(request.getMethod())) {
+            documentService.recordDownload(id);
+        }
     }
 
     @GetMapping("/{id}/preview")
-    public ResponseEntity<Resource> previewDocument(@PathVariable Long id) {
-        DocumentResponse document = documentService.getDocumentById(id);
-        Resource resource = documentService.previewDocument(id);
+    public void previewDocument(@PathVariable Long id, HttpServletRequest request,
+                                HttpServletResponse response) throws IOException {
+        DocumentFile file = documentService.getDocumentFile(id);
 
-        // For preview, use inline instead of attachment
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(document.getFileType()))
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "inline; filename=\"" + document.getFileName() + "\"")
-                .header(HttpHeaders.CACHE_CONTROL, "no-cache, no-store, must-revalidate")
-                .header(HttpHeaders.PRAGMA, "no-cache")
-                .header(HttpHeaders.EXPIRES, "0")
-                .body(resource);
+        // Bytes sau URL này không bao giờ đổi: không có API thay file của tài liệu, id không bị dùng lại,
+        // blob lưu theo SHA-256 nên nội dung khác thì là blob khác (backfill chỉ đổi tên, không đổi nội dung).
+        // Vì vậy cache immutable 365 ngày là an toàn.
+        // Range cho phép trình xem PDF tải từng phần khi tua trang.
+        fileRangeSender.send(file.getPath(), file.getContentHash(), file.getFileType(),
+                ContentDisposition.inline().filename(file.getFileName(), StandardCharsets.UTF_8).build(),
+                CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable(), request, response);
     }
 
     @DeleteMapping("/{id}")
@@ -91,8 +147,16 @@ public class DocumentController {
     }
 
     @GetMapping("/stats")
-    public ResponseEntity<DocumentStats> getStatistics() {
-        return ResponseEntity.ok(documentService.getStatistics());
+    public ResponseEntity<DocumentStats> getStatistics(WebRequest request) {
+        String etag = statsCache.etag(StatsCache.Region.DOCUMENTS, "stats");
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        DocumentStats stats = statsCache.get(StatsCache.Region.DOCUMENTS, "stats", documentService::getStatistics);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(stats);
     }
 
     @GetMapping("/categories")
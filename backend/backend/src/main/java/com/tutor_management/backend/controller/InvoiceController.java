@@ -1,12 +1,22 @@
 package com.tutor_management.backend.controller;
 
+import com.tutor_management.backend.dto.request.InvoiceBatchRequest;
 import com.tutor_management.backend.dto.request.InvoiceRequest;
+import com.tutor_management.backend.dto.response.InvoiceJobResponse;
 import com.tutor_management.backend.dto.response.InvoiceResponse;
 import com.tutor_management.backend.service.*;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.util.List;
+
+@Slf4j
 @RestController
 @RequestMapping("/api/invoices")
 @RequiredArgsConstructor
@@ -14,7 +24,9 @@ import org.springframework.web.bind.annotation.*;
 public class InvoiceController {
 
     private final InvoiceService invoiceService;
-    private final PDFGeneratorService pdfGeneratorService;
+    private final InvoicePdfCache invoicePdfCache;
+    private final InvoiceBatchService invoiceBatchService;
+    private final InvoiceJobService invoiceJobService;
 
     @PostMapping("/generate")
     public ResponseEntity<InvoiceResponse> generateInvoice(@RequestBody InvoiceRequest request) {
@@ -23,26 +35,16 @@ public class InvoiceController {
     }
 
     @PostMapping("/download-pdf")
-    public ResponseEntity<byte[]> downloadInvoicePDF(@RequestBody InvoiceRequest request) {
+    public ResponseEntity<StreamingResponseBody> downloadInvoicePDF(@RequestBody InvoiceRequest request) {
         try {
             InvoiceResponse invoice = invoiceService.generateInvoice(request);
-            byte[] pdfBytes = pdfGeneratorService.generateInvoicePDF(invoice);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
 
             // Tên file khác nhau cho báo giá tổng vs báo giá từng em
             String filename = Boolean.TRUE.equals(request.getAllStudents())
                     ? "Bao-Gia-Tong-" + request.getMonth() + ".pdf"
                     : "Bao-Gia-" + invoice.getInvoiceNumber() + ".pdf";
 
-            headers.setContentDisposition(
-                    ContentDisposition.builder("attachment")
-                            .filename(filename)
-                            .build()
-            );
-
-            return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+            return streamPdf(invoice, filename);
         } catch (Exception e) {
             e.printStackTrace(); // Log lỗi để debug
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -52,7 +54,7 @@ public class InvoiceController {
 
     // OPTIONAL: Endpoint riêng cho báo giá tổng tháng (cho rõ ràng)
     @PostMapping("/download-monthly-pdf")
-    public ResponseEntity<byte[]> downloadMonthlyInvoicePDF(
+    public ResponseEntity<StreamingResponseBody> downloadMonthlyInvoicePDF(
             @RequestParam String month
     ) {
         try {
@@ -62,21 +64,109 @@ public class InvoiceController {
                     .build();
 
             InvoiceResponse invoice = invoiceService.generateInvoice(request);
-            byte[] pdfBytes = pdfGeneratorService.generateInvoicePDF(invoice);
+            return streamPdf(invoice, "Bao-Gia-Tong-" + month + ".pdf");
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(null);
+        }
+    }
+
+    // PDF được ghi thẳng ra response (từ file cache hoặc render trực tiếp), không buffer thành byte[]
+    private ResponseEntity<StreamingResponseBody> streamPdf(InvoiceResponse invoice, String filename) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDisposition(
+                ContentDisposition.builder("attachment")
+                        .filename(filename)
+                        .build()
+        );
+
+        StreamingResponseBody body = out -> {
+            try {
+                invoicePdfCache.writeTo(invoice, out);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Could not render invoice " + invoice.getInvoiceNumber(), e);
+            }
+        };
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    // Báo giá riêng cho từng học sinh trong tháng, nén thành 1 file ZIP stream thẳng ra response
+    @PostMapping("/download-batch")
+    public ResponseEntity<StreamingResponseBody> downloadInvoiceBatch(@Valid @RequestBody InvoiceBatchRequest request) {
+        List<Long> studentIds = invoiceBatchService.resolveStudentIds(request.getMonth(), request.getStudentIds());
+        if (studentIds.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDisposition(
+                ContentDisposition.builder("attachment")
+                        .filename("Bao-Gia-" + request.getMonth() + ".zip")
+                        .build()
+        );
+
+        StreamingResponseBody body = out -> invoiceBatchService.writeZip(request.getMonth(), studentIds, out);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    // Job chạy nền cho báo giá hàng loạt: trả về ngay, client poll GET /jobs/{id} để xem tiến độ
+    @PostMapping("/jobs")
+    public ResponseEntity<InvoiceJobResponse> submitInvoiceJob(@Valid @RequestBody InvoiceBatchRequest request) {
+        InvoiceJobResponse job = invoiceJobService.submit(request);
+        return ResponseEntity.accepted().body(job);
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<InvoiceJobResponse> getInvoiceJob(@PathVariable Long id) {
+        return ResponseEntity.ok(invoiceJobService.getJob(id));
+    }
+
+    @GetMapping("/jobs/{id}/items/{itemId}/pdf")
+    public ResponseEntity<Resource> downloadInvoiceJobItem(@PathVariable Long id, @PathVariable Long itemId) {
+        try {
+            Resource pdf = invoiceJobService.getItemPdf(id, itemId).orElse(null);
+            if (pdf == null) {
+                return ResponseEntity.notFound().build();
+            }
 
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
             headers.setContentDisposition(
                     ContentDisposition.builder("attachment")
-                            .filename("Bao-Gia-Tong-" + month + ".pdf")
+                            .filename("Bao-Gia-" + id + "-" + itemId + ".pdf")
                             .build()
             );
 
-            return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+            return new ResponseEntity<>(pdf, headers, HttpStatus.OK);
+        } catch (IllegalStateException e) {
+            // Item chưa render xong
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(null);
+            log.error("Could not load PDF for invoice job {} item {}", id, itemId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
\ No newline at end of file
+
+    @GetMapping("/jobs/{id}/download")
+    public ResponseEntity<StreamingResponseBody> downloadInvoiceJob(@PathVariable Long id) {
+        if (!invoiceJobService.isFinished(id)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDisposition(
+                ContentDisposition.builder("attachment")
+                        .filename("Bao-Gia-Job-" + id + ".zip")
+                        .build()
+        );
+
+        StreamingResponseBody body = out -> invoiceJobService.writeZip(id, out);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+}
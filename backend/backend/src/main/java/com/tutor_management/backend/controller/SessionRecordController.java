@@ -1,13 +1,21 @@
 package com.tutor_management.backend.controller;
 
+import com.tutor_management.backend.dto.request.BulkPaymentRequest;
+import com.tutor_management.backend.dto.request.SessionRecordBatchRequest;
+import com.tutor_management.backend.dto.request.SessionRecordFilter;
 import com.tutor_management.backend.dto.request.SessionRecordRequest;
+import com.tutor_management.backend.dto.response.BulkPaymentResponse;
+import com.tutor_management.backend.dto.response.SessionRecordBatchResponse;
+import com.tutor_management.backend.dto.response.SessionRecordPage;
 import com.tutor_management.backend.dto.response.SessionRecordResponse;
 import com.tutor_management.backend.service.SessionRecordService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 // ============= Session Record Controller =============
@@ -24,6 +32,29 @@ public class SessionRecordController {
         return ResponseEntity.ok(sessionRecordService.getAllRecords());
     }
 
+    // Danh sách phân trang theo cursor, dùng nextCursor của trang trước để lấy trang tiếp theo
+    @GetMapping("/page")
+    public ResponseEntity<SessionRecordPage> getRecordsPage(
+            @RequestParam(required = false) Long studentId,
+            @RequestParam(required = false) String fromMonth,
+            @RequestParam(required = false) String toMonth,
+            @RequestParam(required = false) Boolean paid,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size
+    ) {
+        SessionRecordFilter filter = SessionRecordFilter.builder()
+                .studentId(studentId)
+                .fromMonth(fromMonth)
+                .toMonth(toMonth)
+                .paid(paid)
+                .fromDate(fromDate)
+                .toDate(toDate)
+                .build();
+        return ResponseEntity.ok(sessionRecordService.getRecordsPage(filter, cursor, size));
+    }
+
     @GetMapping("/month/{month}")
     public ResponseEntity<List<SessionRecordResponse>> getRecordsByMonth(@PathVariable String month) {
         return ResponseEntity.ok(sessionRecordService.getRecordsByMonth(month));
@@ -39,11 +70,23 @@ public class SessionRecordController {
         return ResponseEntity.ok(sessionRecordService.createRecord(request));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<SessionRecordBatchResponse> createRecords(
+            @Valid @RequestBody SessionRecordBatchRequest request
+    ) {
+        return ResponseEntity.ok(sessionRecordService.createRecords(request.getRecords()));
+    }
+
     @PutMapping("/{id}/toggle-payment")
     public ResponseEntity<SessionRecordResponse> togglePayment(@PathVariable Long id) {
         return ResponseEntity.ok(sessionRecordService.togglePayment(id));
     }
 
+    @PutMapping("/mark-paid")
+    public ResponseEntity<BulkPaymentResponse> markMonthPaid(@Valid @RequestBody BulkPaymentRequest request) {
+        return ResponseEntity.ok(sessionRecordService.markMonthPaid(request));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteRecord(@PathVariable Long id) {
         sessionRecordService.deleteRecord(id);
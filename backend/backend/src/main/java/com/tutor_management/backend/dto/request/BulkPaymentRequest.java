@@ -0,0 +1,21 @@
+package com.tutor_management.backend.dto.request;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+import java.util.List;
+
+// Đánh dấu đã/chưa thanh toán toàn bộ session của 1 hoặc nhiều học sinh trong 1 tháng
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPaymentRequest {
+    @NotBlank(message = "Month is required")
+    @Pattern(regexp = "\\d{4}-\\d{2}", message = "Month must be in format YYYY-MM")
+    private String month;
+
+    @NotEmpty(message = "Student IDs are required")
+    private List<Long> studentIds;
+
+    @NotNull(message = "Paid flag is required")
+    private Boolean paid;
+}
@@ -0,0 +1,34 @@
+package com.tutor_management.backend.dto.request;
+
+import com.tutor_management.backend.entity.DocumentCategory;
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+// ============= Document Upload Session Request =============
+// Bắt đầu upload chia chunk: thông tin tài liệu + kích thước file
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentUploadSessionRequest {
+    @NotBlank(message = "Title is required")
+    private String title;
+
+    @NotNull(message = "Category is required")
+    private DocumentCategory category;
+
+    private String description;
+
+    private Long studentId; // Optional
+
+    @NotBlank(message = "File name is required")
+    private String fileName;
+
+    @NotBlank(message = "File type is required")
+    private String fileType;
+
+    @NotNull(message = "File size is required")
+    @Positive(message = "File size must be positive")
+    private Long fileSize;
+
+    private Integer chunkSize; // Optional, mặc định 8 MB
+}
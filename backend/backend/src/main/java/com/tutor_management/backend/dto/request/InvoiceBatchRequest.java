@@ -0,0 +1,17 @@
+package com.tutor_management.backend.dto.request;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+import java.util.List;
+
+// Tạo báo giá riêng cho từng học sinh trong 1 tháng (mỗi em 1 file PDF)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceBatchRequest {
+    @NotBlank(message = "Month is required")
+    @Pattern(regexp = "\\d{4}-\\d{2}", message = "Month must be in format YYYY-MM")
+    private String month;
+
+    private List<Long> studentIds; // null/rỗng = tất cả học sinh còn buổi chưa thanh toán trong tháng
+}
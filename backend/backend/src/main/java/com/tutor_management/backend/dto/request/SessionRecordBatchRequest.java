@@ -0,0 +1,17 @@
+package com.tutor_management.backend.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+import java.util.List;
+
+// Tạo nhiều buổi học trong 1 request (ví dụ nhập cả tháng / cả kỳ)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionRecordBatchRequest {
+    @NotEmpty(message = "Records are required")
+    @Size(max = 1000, message = "At most 1000 records per batch")
+    private List<@Valid SessionRecordRequest> records;
+}
@@ -0,0 +1,18 @@
+package com.tutor_management.backend.dto.request;
+
+import lombok.*;
+import java.time.LocalDate;
+
+// Bộ lọc cho danh sách session phân trang (mọi trường đều optional)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionRecordFilter {
+    private Long studentId;
+    private String fromMonth; // YYYY-MM, bao gồm
+    private String toMonth; // YYYY-MM, bao gồm
+    private Boolean paid;
+    private LocalDate fromDate; // sessionDate, bao gồm
+    private LocalDate toDate; // sessionDate, bao gồm
+}
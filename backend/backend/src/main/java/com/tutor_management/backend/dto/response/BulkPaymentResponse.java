@@ -0,0 +1,17 @@
+package com.tutor_management.backend.dto.response;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPaymentResponse {
+    private String month;
+    private Boolean paid;
+    private Integer updatedCount; // Số session thực sự thay đổi trạng thái
+    private Long monthTotalPaid; // Tổng của các học sinh được chọn trong tháng, sau khi cập nhật
+    private Long monthTotalUnpaid;
+    private List<StudentSessionSummary> students; // Tổng toàn thời gian mới của từng học sinh
+}
@@ -0,0 +1,19 @@
+package com.tutor_management.backend.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import java.util.List;
+
+// Payload của 1 sự kiện SSE trên /api/dashboard/events. Chỉ các trường liên quan tới loại sự kiện được gửi.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DashboardDelta {
+    private List<StudentSessionSummary> students; // Tổng mới của các học sinh bị thay đổi
+    private List<Long> removedStudentIds;
+    private Integer totalStudents;
+    private List<MonthlyStats> months; // Rollup mới của các tháng bị thay đổi (totalSessions = 0 nếu tháng đã trống)
+    private Long totalDocuments;
+}
@@ -0,0 +1,19 @@
+package com.tutor_management.backend.dto.response;
+
+import com.tutor_management.backend.entity.DocumentCategory;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Tổng hợp tài liệu của 1 danh mục (kết quả GROUP BY category)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentCategoryTotals {
+    private DocumentCategory category;
+    private Long documents;
+    private Long totalSize;
+    private Long totalDownloads;
+}
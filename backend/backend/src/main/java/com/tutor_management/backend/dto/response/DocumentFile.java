@@ -0,0 +1,20 @@
+package com.tutor_management.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.file.Path;
+
+// File đã lưu của 1 tài liệu, đủ để gửi xuống client (tải về / xem trước)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentFile {
+    private String fileName;
+    private String fileType;
+    private Path path;
+    private String contentHash; // SHA-256 của nội dung, null với file cũ lưu theo UUID
+}
@@ -0,0 +1,28 @@
+package com.tutor_management.backend.dto.response;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentUploadSessionResponse {
+    private String uploadId;
+    private String fileName;
+    private Long fileSize;
+    private Integer chunkSize;
+    private Integer totalChunks;
+    private Long receivedBytes;
+    private List<ChunkRange> receivedChunks; // Các đoạn chunk đã nhận, client chỉ gửi phần còn thiếu
+    private Boolean complete;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ChunkRange {
+        private Integer first;
+        private Integer last; // Bao gồm
+    }
+}
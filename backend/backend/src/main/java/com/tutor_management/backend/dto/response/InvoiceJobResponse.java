@@ -0,0 +1,35 @@
+package com.tutor_management.backend.dto.response;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceJobResponse {
+    private Long id;
+    private String month;
+    private String status; // QUEUED, RUNNING, COMPLETED, FAILED
+    private Integer totalItems;
+    private Integer completedItems;
+    private Integer failedItems;
+    private String error;
+    private String createdAt;
+    private String startedAt;
+    private String finishedAt;
+    private List<Item> items;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long id;
+        private Long studentId;
+        private String studentName;
+        private String status; // PENDING, DONE, FAILED
+        private String invoiceNumber; // null cho tới khi DONE
+        private String error;
+    }
+}
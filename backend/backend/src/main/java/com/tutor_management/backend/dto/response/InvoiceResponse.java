@@ -17,6 +17,7 @@ public class InvoiceResponse {
     private List<InvoiceItem> items;
     private BankInfo bankInfo;
     private String qrCodeUrl;
+    private String qrPayload; // Chuỗi VietQR, PDF vẽ QR từ đây (không tải ảnh qua mạng)
     private String createdDate;
 }
 
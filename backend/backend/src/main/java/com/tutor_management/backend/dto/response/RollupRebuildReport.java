@@ -0,0 +1,26 @@
+package com.tutor_management.backend.dto.response;
+
+import lombok.*;
+import java.util.List;
+
+// Kết quả rebuild monthly_rollup: các tháng mà giá trị lưu sẵn lệch so với session_records
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupRebuildReport {
+    private Integer monthsChecked;
+    private Integer monthsDrifted;
+    private List<Drift> drifts;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Drift {
+        private String month;
+        private String field;
+        private Long stored; // null nếu tháng chưa có dòng rollup
+        private Long actual; // null nếu tháng không còn session
+    }
+}
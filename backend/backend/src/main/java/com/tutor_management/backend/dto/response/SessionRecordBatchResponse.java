@@ -0,0 +1,25 @@
+package com.tutor_management.backend.dto.response;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionRecordBatchResponse {
+    private Integer created;
+    private Integer failed;
+    private List<ItemResult> results; // Cùng thứ tự với request
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private Integer index;
+        private Boolean success;
+        private SessionRecordResponse record; // null nếu lỗi
+        private String error; // null nếu thành công
+    }
+}
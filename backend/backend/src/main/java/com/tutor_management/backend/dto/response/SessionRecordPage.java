@@ -0,0 +1,14 @@
+package com.tutor_management.backend.dto.response;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionRecordPage {
+    private List<SessionRecordResponse> items;
+    private String nextCursor; // null nếu đã hết dữ liệu
+    private Boolean hasMore;
+}
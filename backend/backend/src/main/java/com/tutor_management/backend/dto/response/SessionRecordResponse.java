@@ -5,6 +5,10 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -23,4 +27,16 @@ public class SessionRecordResponse {
     private String notes;
     private String sessionDate; // 🆕 Ngày dạy (String để dễ serialize)
     private String createdAt;
-}
\ No newline at end of file
+
+    // Constructor cho JPQL projection (SELECT new ...), format ngày giờ giống SessionRecordService
+    public SessionRecordResponse(Long id, Long studentId, String studentName, String month,
+                                 Integer sessions, Integer hours, Long pricePerHour, Long totalAmount,
+                                 Boolean paid, LocalDateTime paidAt, String notes,
+                                 LocalDate sessionDate, LocalDateTime createdAt) {
+        this(id, studentId, studentName, month, sessions, hours, pricePerHour, totalAmount, paid,
+                paidAt != null ? paidAt.format(DateTimeFormatter.ISO_DATE_TIME) : null,
+                notes,
+                sessionDate != null ? sessionDate.toString() : null,
+                createdAt.format(DateTimeFormatter.ISO_DATE_TIME));
+    }
+}
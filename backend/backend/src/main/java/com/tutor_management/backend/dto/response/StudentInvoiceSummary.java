@@ -0,0 +1,20 @@
+package com.tutor_management.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Tổng hợp session của 1 học sinh trong 1 tháng cho báo giá (kết quả GROUP BY student)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentInvoiceSummary {
+    private Long studentId;
+    private String studentName;
+    private Long sessions;
+    private Long hours;
+    private Long amount;
+    private Long pricePerHour;
+}
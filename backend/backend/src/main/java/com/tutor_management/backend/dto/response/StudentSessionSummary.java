@@ -0,0 +1,18 @@
+package com.tutor_management.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Tổng học phí và tháng hoạt động gần nhất của 1 học sinh
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentSessionSummary {
+    private Long studentId;
+    private Long totalPaid;
+    private Long totalUnpaid;
+    private String lastActiveMonth;
+}
@@ -5,7 +5,9 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "documents")
+@Table(name = "documents", indexes = {
+        @Index(name = "idx_documents_file_path", columnList = "filePath")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
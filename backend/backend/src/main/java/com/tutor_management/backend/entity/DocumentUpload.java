@@ -0,0 +1,70 @@
+package com.tutor_management.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// Phiên upload chia chunk cho tài liệu lớn. Lưu trong database để client tải tiếp sau khi mất kết nối
+// hoặc server restart; dữ liệu nằm trong file tạm đã cấp sẵn đủ dung lượng (FileStorageService).
+@Entity
+@Table(name = "document_uploads", indexes = {
+        @Index(name = "idx_document_uploads_updated_at", columnList = "updatedAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DocumentUpload {
+
+    @Id
+    @Column(length = 36)
+    private String id; // UUID
+
+    @Column(nullable = false)
+    private String title;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private DocumentCategory category;
+
+    @Column(length = 1000)
+    private String description;
+
+    private Long studentId;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    @Column(nullable = false)
+    private String fileType; // MIME type
+
+    @Column(nullable = false)
+    private Long fileSize; // in bytes
+
+    @Column(nullable = false)
+    private Integer chunkSize;
+
+    @Column(nullable = false)
+    private Integer totalChunks;
+
+    // Bitmap các chunk đã nhận (BitSet.toByteArray)
+    @Column(nullable = false, length = 1024)
+    private byte[] receivedChunks;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
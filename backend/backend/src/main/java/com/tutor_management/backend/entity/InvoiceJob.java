@@ -0,0 +1,49 @@
+package com.tutor_management.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// Job tạo báo giá hàng loạt chạy nền. Trạng thái lưu trong database để chạy tiếp sau khi restart.
+@Entity
+@Table(name = "invoice_jobs", indexes = {
+        @Index(name = "idx_invoice_jobs_status", columnList = "status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvoiceJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 7)
+    private String month; // Format: YYYY-MM
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private InvoiceJobStatus status;
+
+    @Column(nullable = false)
+    private Integer totalItems;
+
+    @Column(length = 1000)
+    private String error; // Lỗi làm dừng cả job (lỗi từng học sinh nằm ở InvoiceJobItem)
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (status == null) {
+            status = InvoiceJobStatus.QUEUED;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.tutor_management.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// Một báo giá (1 học sinh) trong InvoiceJob. PDF nằm trong InvoicePdfCache, tìm lại qua invoiceNumber.
+@Entity
+@Table(name = "invoice_job_items", indexes = {
+        @Index(name = "idx_invoice_job_items_job_status", columnList = "job_id, status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvoiceJobItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "job_id", nullable = false)
+    @ToString.Exclude
+    private InvoiceJob job;
+
+    @Column(nullable = false)
+    private Long studentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private InvoiceJobItemStatus status;
+
+    private String studentName;
+
+    private String invoiceNumber;
+
+    @Column(length = 1000)
+    private String error;
+
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,7 @@
+package com.tutor_management.backend.entity;
+
+public enum InvoiceJobItemStatus {
+    PENDING,
+    DONE,
+    FAILED
+}
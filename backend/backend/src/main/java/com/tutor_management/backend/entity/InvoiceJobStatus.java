@@ -0,0 +1,8 @@
+package com.tutor_management.backend.entity;
+
+public enum InvoiceJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED, // Đã chạy hết, có thể có item lỗi
+    FAILED
+}
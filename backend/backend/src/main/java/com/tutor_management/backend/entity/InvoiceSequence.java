@@ -0,0 +1,22 @@
+package com.tutor_management.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Bộ đếm số báo giá theo tháng. InvoiceNumberGenerator giữ từng khối số trong bộ nhớ,
+// dòng này chỉ lưu số đầu tiên chưa được cấp.
+@Entity
+@Table(name = "invoice_sequences")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvoiceSequence {
+
+    @Id
+    @Column(length = 7)
+    private String month; // Format: YYYY-MM
+
+    @Column(nullable = false)
+    private Long nextValue;
+}
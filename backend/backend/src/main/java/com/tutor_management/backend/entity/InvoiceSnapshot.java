@@ -0,0 +1,60 @@
+package com.tutor_management.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Báo giá đã chốt, không sửa sau khi tạo. contentHash là hash của yêu cầu + nội dung (không gồm số báo giá),
+// nên cùng dữ liệu session sẽ trả lại đúng báo giá cũ thay vì cấp số mới.
+@Entity
+@Table(name = "invoice_snapshots")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvoiceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String contentHash;
+
+    @Column(nullable = false, unique = true)
+    private String invoiceNumber;
+
+    @Column(nullable = false, length = 7)
+    private String month; // Format: YYYY-MM
+
+    @Column(nullable = false)
+    private String studentName;
+
+    @Column(nullable = false)
+    private Integer totalSessions;
+
+    @Column(nullable = false)
+    private Integer totalHours;
+
+    @Column(nullable = false)
+    private Long totalAmount;
+
+    @Column(length = 512)
+    private String qrCodeUrl;
+
+    @ElementCollection
+    @CollectionTable(name = "invoice_snapshot_items", joinColumns = @JoinColumn(name = "snapshot_id"))
+    @OrderColumn(name = "line_no")
+    @Builder.Default
+    private List<InvoiceSnapshotItem> items = new ArrayList<>();
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
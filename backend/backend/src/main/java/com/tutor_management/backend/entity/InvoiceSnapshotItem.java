@@ -0,0 +1,31 @@
+package com.tutor_management.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Một dòng của báo giá đã chốt (xem InvoiceSnapshot)
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvoiceSnapshotItem {
+
+    @Column(nullable = false)
+    private String date;
+
+    @Column(nullable = false)
+    private String description;
+
+    @Column(nullable = false)
+    private Integer sessions;
+
+    @Column(nullable = false)
+    private Integer hours;
+
+    @Column(nullable = false)
+    private Long pricePerHour;
+
+    @Column(nullable = false)
+    private Long amount;
+}
@@ -0,0 +1,49 @@
+package com.tutor_management.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// Tổng hợp doanh thu theo tháng, được MonthlyRollupService cập nhật cùng transaction với mọi thay đổi session
+@Entity
+@Table(name = "monthly_rollup")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MonthlyRollup {
+
+    @Id
+    @Column(length = 7)
+    private String month; // Format: YYYY-MM
+
+    @Column(nullable = false)
+    private Long totalPaid;
+
+    @Column(nullable = false)
+    private Long totalUnpaid;
+
+    @Column(nullable = false)
+    private Long totalSessions;
+
+    @Column(nullable = false)
+    private Long totalHours;
+
+    @Column(nullable = false)
+    private Long activeStudents; // Số học sinh có ít nhất 1 session trong tháng
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructor cho JPQL projection khi tính lại từ session_records
+    public MonthlyRollup(String month, Long totalPaid, Long totalUnpaid,
+                         Long totalSessions, Long totalHours, Long activeStudents) {
+        this(month, totalPaid, totalUnpaid, totalSessions, totalHours, activeStudents, null);
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
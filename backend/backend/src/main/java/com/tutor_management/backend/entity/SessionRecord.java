@@ -7,15 +7,22 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "session_records")
+@Table(name = "session_records", indexes = {
+        @Index(name = "idx_session_records_created_at_id", columnList = "createdAt, id"),
+        @Index(name = "idx_session_records_student_created_at", columnList = "student_id, createdAt"),
+        @Index(name = "idx_session_records_month_student", columnList = "month, student_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class SessionRecord {
 
+    // SEQUENCE (trên MySQL là bảng session_records_seq) thay vì IDENTITY để Hibernate có thể batch INSERT.
+    // allocationSize phải khớp với SessionRecordSequenceInitializer.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "session_record_seq")
+    @SequenceGenerator(name = "session_record_seq", sequenceName = "session_records_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -35,8 +35,21 @@ public class Student {
     private Boolean active = true; // Thêm trường active
 
     private String startMonth; // Thêm trường startMonth
+
+    // lastActiveMonth và tổng học phí là dữ liệu denormalized, chỉ được cập nhật bằng các câu UPDATE
+    // trong StudentRepository (SessionRecordService gọi mỗi khi ghi session). updatable = false để
+    // save(student) khi sửa thông tin không ghi đè giá trị cũ lên thay đổi của transaction khác.
+    @Column(updatable = false)
     private String lastActiveMonth; // Thêm trường lastActiveMonth
 
+    @Builder.Default
+    @Column(updatable = false)
+    private Long totalPaid = 0L;
+
+    @Builder.Default
+    @Column(updatable = false)
+    private Long totalUnpaid = 0L;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -47,6 +60,12 @@ public class Student {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        if (totalPaid == null) {
+            totalPaid = 0L;
+        }
+        if (totalUnpaid == null) {
+            totalUnpaid = 0L;
+        }
     }
 
     @PreUpdate
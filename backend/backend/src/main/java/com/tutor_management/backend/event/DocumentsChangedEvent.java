@@ -0,0 +1,13 @@
+package com.tutor_management.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+// Phát ra sau khi thêm / xoá tài liệu hoặc số lượt tải thay đổi
+@Getter
+@ToString
+@AllArgsConstructor
+public class DocumentsChangedEvent {
+    private final Long documentId; // null = nhiều tài liệu
+}
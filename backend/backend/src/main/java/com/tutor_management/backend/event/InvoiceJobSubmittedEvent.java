@@ -0,0 +1,13 @@
+package com.tutor_management.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+// Phát ra khi tạo job báo giá; worker chỉ chạy job sau khi transaction tạo job commit
+@Getter
+@ToString
+@AllArgsConstructor
+public class InvoiceJobSubmittedEvent {
+    private final Long jobId;
+}
@@ -0,0 +1,16 @@
+package com.tutor_management.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Set;
+
+// Phát ra sau khi session_records (và các tổng phụ thuộc) thay đổi
+@Getter
+@ToString
+@AllArgsConstructor
+public class SessionRecordsChangedEvent {
+    private final Set<Long> studentIds; // Rỗng = không xác định / tất cả
+    private final Set<String> months; // Rỗng = không xác định / tất cả
+}
@@ -0,0 +1,13 @@
+package com.tutor_management.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+// Phát ra sau khi thêm / sửa / xoá học sinh
+@Getter
+@ToString
+@AllArgsConstructor
+public class StudentsChangedEvent {
+    private final Long studentId;
+}
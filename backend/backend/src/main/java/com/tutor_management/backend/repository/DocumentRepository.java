@@ -1,10 +1,13 @@
 package com.tutor_management.backend.repository;
 
+import com.tutor_management.backend.dto.response.DocumentCategoryTotals;
 import com.tutor_management.backend.entity.Document;
 import com.tutor_management.backend.entity.DocumentCategory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,12 +21,21 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
 
     List<Document> findByTitleContainingIgnoreCaseOrderByCreatedAtDesc(String keyword);
 
-    @Query("SELECT COUNT(d) FROM Document d WHERE d.category = :category")
-    Long countByCategory(DocumentCategory category);
+    // Số tài liệu dùng chung 1 file đã lưu (file lưu theo nội dung, xem FileStorageService)
+    long countByFilePath(String filePath);
 
-    @Query("SELECT COALESCE(SUM(d.fileSize), 0) FROM Document d")
-    Long sumTotalFileSize();
+    // Tài liệu cũ còn lưu file theo tên UUID (tên lưu theo nội dung luôn có dạng "ab/abcd...")
+    @Query("SELECT d FROM Document d WHERE d.filePath NOT LIKE '%/%' ORDER BY d.id")
+    List<Document> findWithLegacyFilePath();
 
-    @Query("SELECT COALESCE(SUM(d.downloadCount), 0) FROM Document d")
-    Long sumTotalDownloads();
+    // Thống kê: số tài liệu, dung lượng, lượt tải của mọi danh mục trong 1 lần quét
+    @Query("SELECT new com.tutor_management.backend.dto.response.DocumentCategoryTotals(" +
+            "d.category, COUNT(d), COALESCE(SUM(d.fileSize), 0L), COALESCE(SUM(d.downloadCount), 0L)) " +
+            "FROM Document d GROUP BY d.category")
+    List<DocumentCategoryTotals> summarizeByCategory();
+
+    // Cộng dồn lượt tải cho nhiều tài liệu cùng số lượt tăng (UPDATE nguyên tử, không read-modify-write)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Document d SET d.downloadCount = d.downloadCount + :delta WHERE d.id IN :ids")
+    int incrementDownloadCounts(Collection<Long> ids, Long delta);
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.tutor_management.backend.repository;
+
+import com.tutor_management.backend.entity.DocumentUpload;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DocumentUploadRepository extends JpaRepository<DocumentUpload, String> {
+
+    // Đọc bitmap thẳng từ database và khoá dòng: các chunk PUT song song không ghi đè lẫn nhau
+    // (không trả entity vì entity đã nạp trong request có thể là bản cũ)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u.receivedChunks FROM DocumentUpload u WHERE u.id = :id")
+    Optional<byte[]> findReceivedChunksForUpdate(String id);
+
+    @Modifying
+    @Query("UPDATE DocumentUpload u SET u.receivedChunks = :receivedChunks, u.updatedAt = :updatedAt WHERE u.id = :id")
+    int updateReceivedChunks(String id, byte[] receivedChunks, LocalDateTime updatedAt);
+
+    // Phiên bị bỏ dở quá lâu
+    List<DocumentUpload> findByUpdatedAtBefore(LocalDateTime cutoff);
+}
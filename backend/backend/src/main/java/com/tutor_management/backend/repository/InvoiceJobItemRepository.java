@@ -0,0 +1,19 @@
+package com.tutor_management.backend.repository;
+
+import com.tutor_management.backend.entity.InvoiceJobItem;
+import com.tutor_management.backend.entity.InvoiceJobItemStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InvoiceJobItemRepository extends JpaRepository<InvoiceJobItem, Long> {
+
+    List<InvoiceJobItem> findByJobIdOrderByIdAsc(Long jobId);
+
+    List<InvoiceJobItem> findByJobIdAndStatusOrderByIdAsc(Long jobId, InvoiceJobItemStatus status);
+
+    Optional<InvoiceJobItem> findByIdAndJobId(Long id, Long jobId);
+}
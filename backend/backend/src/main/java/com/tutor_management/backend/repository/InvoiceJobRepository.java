@@ -0,0 +1,16 @@
+package com.tutor_management.backend.repository;
+
+import com.tutor_management.backend.entity.InvoiceJob;
+import com.tutor_management.backend.entity.InvoiceJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface InvoiceJobRepository extends JpaRepository<InvoiceJob, Long> {
+
+    // Job chưa xong (kể cả đang chạy dở lúc tắt server), cũ nhất trước
+    List<InvoiceJob> findByStatusInOrderByIdAsc(Collection<InvoiceJobStatus> statuses);
+}
@@ -0,0 +1,24 @@
+package com.tutor_management.backend.repository;
+
+import com.tutor_management.backend.entity.InvoiceSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface InvoiceSequenceRepository extends JpaRepository<InvoiceSequence, String> {
+
+    // Giữ trước một khối số. UPDATE khoá dòng đến hết transaction nên không node nào nhận trùng khối.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE InvoiceSequence s SET s.nextValue = s.nextValue + :blockSize WHERE s.month = :month")
+    int reserveBlock(String month, Long blockSize);
+
+    @Query("SELECT s.nextValue FROM InvoiceSequence s WHERE s.month = :month")
+    Long findNextValue(String month);
+
+    // INSERT thuần (không merge) để hai request cùng tạo tháng mới sẽ có một bên lỗi duplicate key
+    @Modifying
+    @Query(value = "INSERT INTO invoice_sequences (month, next_value) VALUES (:month, :nextValue)", nativeQuery = true)
+    int insert(String month, Long nextValue);
+}
@@ -0,0 +1,18 @@
+package com.tutor_management.backend.repository;
+
+import com.tutor_management.backend.entity.InvoiceSnapshot;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface InvoiceSnapshotRepository extends JpaRepository<InvoiceSnapshot, Long> {
+
+    @EntityGraph(attributePaths = "items")
+    Optional<InvoiceSnapshot> findByContentHash(String contentHash);
+
+    @EntityGraph(attributePaths = "items")
+    Optional<InvoiceSnapshot> findByInvoiceNumber(String invoiceNumber);
+}
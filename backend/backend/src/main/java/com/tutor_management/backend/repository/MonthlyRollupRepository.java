@@ -0,0 +1,48 @@
+package com.tutor_management.backend.repository;
+
+import com.tutor_management.backend.entity.MonthlyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MonthlyRollupRepository extends JpaRepository<MonthlyRollup, String> {
+
+    // Các tháng còn session, mới nhất trước
+    List<MonthlyRollup> findByTotalSessionsGreaterThanOrderByMonthDesc(Long minSessions);
+
+    @Query("SELECT r.month FROM MonthlyRollup r")
+    List<String> findAllMonths();
+
+    @Query("SELECT COALESCE(SUM(r.totalPaid), 0) FROM MonthlyRollup r")
+    Long sumTotalPaid();
+
+    @Query("SELECT COALESCE(SUM(r.totalUnpaid), 0) FROM MonthlyRollup r")
+    Long sumTotalUnpaid();
+
+    // Cộng dồn nguyên tử vào dòng của tháng, tạo dòng mới nếu tháng chưa có.
+    // Câu lệnh giữ khoá dòng của tháng tới hết transaction nên 2 transaction cùng tháng không thể cùng INSERT.
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO monthly_rollup " +
+            "(month, total_paid, total_unpaid, total_sessions, total_hours, active_students, updated_at) " +
+            "VALUES (:month, :paidDelta, :unpaidDelta, :sessionsDelta, :hoursDelta, :activeStudentsDelta, :now) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "total_paid = total_paid + VALUES(total_paid), " +
+            "total_unpaid = total_unpaid + VALUES(total_unpaid), " +
+            "total_sessions = total_sessions + VALUES(total_sessions), " +
+            "total_hours = total_hours + VALUES(total_hours), " +
+            "active_students = active_students + VALUES(active_students), " +
+            "updated_at = VALUES(updated_at)",
+            nativeQuery = true)
+    int upsertDelta(String month, Long paidDelta, Long unpaidDelta, Long sessionsDelta,
+                    Long hoursDelta, Long activeStudentsDelta, LocalDateTime now);
+
+    // Xoá dòng của tháng khi không còn session nào
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM MonthlyRollup r WHERE r.month = :month AND r.totalSessions <= 0")
+    int deleteIfEmpty(String month);
+}
@@ -1,23 +1,49 @@
 package com.tutor_management.backend.repository;
 
+import com.tutor_management.backend.dto.response.SessionRecordResponse;
+import com.tutor_management.backend.dto.response.StudentInvoiceSummary;
+import com.tutor_management.backend.entity.MonthlyRollup;
 import com.tutor_management.backend.entity.SessionRecord;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface SessionRecordRepository extends JpaRepository<SessionRecord, Long> {
+// Danh sách phân trang có bộ lọc dùng JpaSpecificationExecutor với SessionRecordSpecifications
+public interface SessionRecordRepository extends JpaRepository<SessionRecord, Long>,
+        JpaSpecificationExecutor<SessionRecord> {
 
     // Phương thức cần cho StudentService (tìm records theo StudentId)
     List<SessionRecord> findByStudentIdOrderByCreatedAtDesc(Long studentId);
 
-    // Lấy tất cả các bản ghi, sắp xếp theo thời gian tạo giảm dần
-    List<SessionRecord> findAllByOrderByCreatedAtDesc();
+    // Các session chưa thanh toán của 1 học sinh trong tháng (báo giá từng em)
+    List<SessionRecord> findByStudentIdAndMonthAndPaidFalseOrderBySessionDateAsc(Long studentId, String month);
 
-    // Lấy các bản ghi theo tháng, sắp xếp theo thời gian tạo giảm dần
-    List<SessionRecord> findByMonthOrderByCreatedAtDesc(String month);
+    // Lấy tất cả các bản ghi dưới dạng DTO (join students, không hydrate entity), sắp xếp theo thời gian tạo giảm dần
+    @Query("SELECT new com.tutor_management.backend.dto.response.SessionRecordResponse(" +
+            "sr.id, s.id, s.name, sr.month, sr.sessions, sr.hours, sr.pricePerHour, sr.totalAmount, " +
+            "sr.paid, sr.paidAt, sr.notes, sr.sessionDate, sr.createdAt) " +
+            "FROM SessionRecord sr JOIN sr.student s " +
+            "ORDER BY sr.createdAt DESC")
+    List<SessionRecordResponse> findAllResponses();
+
+    // Lấy các bản ghi theo tháng dưới dạng DTO, sắp xếp theo thời gian tạo giảm dần
+    @Query("SELECT new com.tutor_management.backend.dto.response.SessionRecordResponse(" +
+            "sr.id, s.id, s.name, sr.month, sr.sessions, sr.hours, sr.pricePerHour, sr.totalAmount, " +
+            "sr.paid, sr.paidAt, sr.notes, sr.sessionDate, sr.createdAt) " +
+            "FROM SessionRecord sr JOIN sr.student s " +
+            "WHERE sr.month = :month " +
+            "ORDER BY sr.createdAt DESC")
+    List<SessionRecordResponse> findResponsesByMonth(String month);
 
     // Lấy danh sách các tháng duy nhất (BẮT BUỘC phải dùng @Query)
     @Query("SELECT DISTINCT sr.month FROM SessionRecord sr ORDER BY sr.month DESC")
@@ -41,7 +67,74 @@ public interface SessionRecordRepository extends JpaRepository<SessionRecord, Lo
     @Query("SELECT COALESCE(SUM(sr.totalAmount), 0) FROM SessionRecord sr WHERE sr.month = :month AND sr.paid = false")
     Long sumTotalUnpaidByMonth(String month);
 
-    // Tính tổng số buổi học (Sessions) theo tháng.
-    @Query("SELECT COALESCE(SUM(sr.sessions), 0) FROM SessionRecord sr WHERE sr.month = :month")
-    Integer sumSessionsByMonth(String month);
-}
\ No newline at end of file
+    // Tính monthly rollup từ đầu cho mọi tháng trong 1 query GROUP BY (dùng khi rebuild / kiểm tra lệch).
+    @Query("SELECT new com.tutor_management.backend.entity.MonthlyRollup(" +
+            "sr.month, " +
+            "COALESCE(SUM(CASE WHEN sr.paid = true THEN sr.totalAmount ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN sr.paid = false THEN sr.totalAmount ELSE 0L END), 0L), " +
+            "COALESCE(SUM(sr.sessions), 0L), " +
+            "COALESCE(SUM(sr.hours), 0L), " +
+            "COUNT(DISTINCT sr.student.id)) " +
+            "FROM SessionRecord sr GROUP BY sr.month ORDER BY sr.month DESC")
+    List<MonthlyRollup> aggregateMonthlyRollups();
+
+    // Giống aggregateMonthlyRollups() nhưng chỉ cho 1 tháng
+    @Query("SELECT new com.tutor_management.backend.entity.MonthlyRollup(" +
+            "sr.month, " +
+            "COALESCE(SUM(CASE WHEN sr.paid = true THEN sr.totalAmount ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN sr.paid = false THEN sr.totalAmount ELSE 0L END), 0L), " +
+            "COALESCE(SUM(sr.sessions), 0L), " +
+            "COALESCE(SUM(sr.hours), 0L), " +
+            "COUNT(DISTINCT sr.student.id)) " +
+            "FROM SessionRecord sr WHERE sr.month = :month GROUP BY sr.month")
+    Optional<MonthlyRollup> aggregateMonthlyRollup(String month);
+
+    // Học sinh đã có session trong tháng chưa (để đếm activeStudents của rollup)
+    boolean existsByStudentIdAndMonth(Long studentId, String month);
+
+    // Tháng của session (không nạp entity): để khoá tháng trước khi đọc và khoá dòng session
+    @Query("SELECT sr.month FROM SessionRecord sr WHERE sr.id = :id")
+    Optional<String> findMonthById(Long id);
+
+    // Đọc và khoá dòng session: 2 lần đổi trạng thái thanh toán cùng lúc không thể cùng đọc giá trị cũ
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT sr FROM SessionRecord sr WHERE sr.id = :id")
+    Optional<SessionRecord> findByIdForUpdate(Long id);
+
+    // Các tháng mà học sinh có session
+    @Query("SELECT DISTINCT sr.month FROM SessionRecord sr WHERE sr.student.id = :studentId")
+    List<String> findDistinctMonthsByStudentId(Long studentId);
+
+    // Đánh dấu đã/chưa thanh toán cả tháng cho các học sinh trong 1 câu UPDATE (bỏ qua session đã đúng trạng thái)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SessionRecord sr SET sr.paid = :paid, sr.paidAt = :paidAt " +
+            "WHERE sr.month = :month AND sr.student.id IN :studentIds AND sr.paid <> :paid")
+    int updatePaidForMonth(String month, Collection<Long> studentIds, Boolean paid, LocalDateTime paidAt);
+
+    // Tổng đã / chưa thanh toán trong tháng của các học sinh được chọn
+    @Query("SELECT COALESCE(SUM(sr.totalAmount), 0) FROM SessionRecord sr " +
+            "WHERE sr.month = :month AND sr.student.id IN :studentIds AND sr.paid = :paid")
+    Long sumTotalByMonthAndStudentIds(String month, Collection<Long> studentIds, Boolean paid);
+
+    // Học sinh còn buổi chưa thanh toán trong tháng (mỗi em 1 báo giá khi tạo hàng loạt)
+    @Query("SELECT DISTINCT sr.student.id FROM SessionRecord sr WHERE sr.month = :month AND sr.paid = false")
+    List<Long> findStudentIdsWithUnpaidSessions(String month);
+
+    // Báo giá tổng tháng: mỗi học sinh 1 dòng, tổng hợp sẵn trong database
+    @Query("SELECT new com.tutor_management.backend.dto.response.StudentInvoiceSummary(" +
+            "s.id, s.name, COALESCE(SUM(sr.sessions), 0L), COALESCE(SUM(sr.hours), 0L), " +
+            "COALESCE(SUM(sr.totalAmount), 0L), MAX(sr.pricePerHour)) " +
+            "FROM SessionRecord sr JOIN sr.student s " +
+            "WHERE sr.month = :month " +
+            "GROUP BY s.id, s.name ORDER BY s.name")
+    List<StudentInvoiceSummary> summarizeInvoiceByMonth(String month);
+
+    // Giống summarizeInvoiceByMonth() nhưng chỉ cho các học sinh được chọn
+    @Query("SELECT new com.tutor_management.backend.dto.response.StudentInvoiceSummary(" +
+            "s.id, s.name, COALESCE(SUM(sr.sessions), 0L), COALESCE(SUM(sr.hours), 0L), " +
+            "COALESCE(SUM(sr.totalAmount), 0L), MAX(sr.pricePerHour)) " +
+            "FROM SessionRecord sr JOIN sr.student s " +
+            "WHERE sr.month = :month AND s.id IN :studentIds " +
+            "GROUP BY s.id, s.name ORDER BY s.name")
+    List<StudentInvoiceSummary> summarizeInvoiceByMonthAndStudentIds(String month, Collection<Long> studentIds);
+}
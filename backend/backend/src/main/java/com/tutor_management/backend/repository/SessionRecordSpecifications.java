@@ -0,0 +1,65 @@
+package com.tutor_management.backend.repository;
+
+import com.tutor_management.backend.dto.request.SessionRecordFilter;
+import com.tutor_management.backend.entity.SessionRecord;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Điều kiện cho danh sách session phân trang keyset. Chỉ thêm các bộ lọc có giá trị (không dùng
+// "(:x IS NULL OR ...)"), để mỗi tổ hợp bộ lọc là 1 câu SQL riêng và MySQL chọn được index phù hợp.
+public final class SessionRecordSpecifications {
+
+    // Thứ tự keyset: (createdAt, id) giảm dần
+    public static final Sort PAGE_SORT = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+
+    private SessionRecordSpecifications() {
+    }
+
+    // cursorCreatedAt/cursorId = null nghĩa là trang đầu tiên
+    public static Specification<SessionRecord> page(SessionRecordFilter filter,
+                                                    LocalDateTime cursorCreatedAt,
+                                                    Long cursorId) {
+        return (root, query, cb) -> {
+            // Fetch student cùng query (tránh N+1), trừ khi là query đếm
+            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+                root.fetch("student");
+            }
+
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.getStudentId() != null) {
+                predicates.add(cb.equal(root.get("student").get("id"), filter.getStudentId()));
+            }
+            if (filter.getFromMonth() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("month"), filter.getFromMonth()));
+            }
+            if (filter.getToMonth() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("month"), filter.getToMonth()));
+            }
+            if (filter.getPaid() != null) {
+                predicates.add(cb.equal(root.get("paid"), filter.getPaid()));
+            }
+            if (filter.getFromDate() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("sessionDate"), filter.getFromDate()));
+            }
+            if (filter.getToDate() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("sessionDate"), filter.getToDate()));
+            }
+
+            // (createdAt, id) < cursor, viết kèm điều kiện range createdAt <= cursor để dùng được index
+            if (cursorCreatedAt != null) {
+                Path<LocalDateTime> createdAt = root.get("createdAt");
+                predicates.add(cb.lessThanOrEqualTo(createdAt, cursorCreatedAt));
+                predicates.add(cb.or(
+                        cb.lessThan(createdAt, cursorCreatedAt),
+                        cb.lessThan(root.get("id"), cursorId)));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
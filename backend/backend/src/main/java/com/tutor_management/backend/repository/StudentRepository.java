@@ -2,8 +2,11 @@ package com.tutor_management.backend.repository;
 
 import com.tutor_management.backend.entity.Student;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +16,44 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
 //    Optional<Student> findByIdAndUserId(Long id, Long userId);
 
     List<Student> findAllByOrderByCreatedAtDesc();
+
+    // Học sinh cũ chưa có tổng học phí denormalized (dữ liệu trước khi thêm cột)
+    boolean existsByTotalPaidIsNullOrTotalUnpaidIsNull();
+
+    // Cộng dồn tổng học phí và đẩy lastActiveMonth lên nếu tháng mới hơn (UPDATE nguyên tử, không read-modify-write)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Student s SET " +
+            "s.totalPaid = COALESCE(s.totalPaid, 0) + :paidDelta, " +
+            "s.totalUnpaid = COALESCE(s.totalUnpaid, 0) + :unpaidDelta, " +
+            "s.lastActiveMonth = CASE WHEN s.lastActiveMonth IS NULL OR s.lastActiveMonth < :month " +
+            "THEN :month ELSE s.lastActiveMonth END " +
+            "WHERE s.id = :studentId")
+    int applySessionDelta(Long studentId, Long paidDelta, Long unpaidDelta, String month);
+
+    // Tính lại lastActiveMonth từ session_records (dùng khi xoá session)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Student s SET s.lastActiveMonth = " +
+            "(SELECT MAX(sr.month) FROM SessionRecord sr WHERE sr.student.id = s.id) " +
+            "WHERE s.id = :studentId")
+    int refreshLastActiveMonth(Long studentId);
+
+    // Tính lại tổng học phí từ session_records cho các học sinh (dùng sau các UPDATE hàng loạt)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Student s SET " +
+            "s.totalPaid = (SELECT COALESCE(SUM(sr.totalAmount), 0) FROM SessionRecord sr " +
+            "WHERE sr.student.id = s.id AND sr.paid = true), " +
+            "s.totalUnpaid = (SELECT COALESCE(SUM(sr.totalAmount), 0) FROM SessionRecord sr " +
+            "WHERE sr.student.id = s.id AND sr.paid = false) " +
+            "WHERE s.id IN :studentIds")
+    int refreshTotals(Collection<Long> studentIds);
+
+    // Tính lại tổng học phí và lastActiveMonth của mọi học sinh từ session_records (rebuild / backfill)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Student s SET " +
+            "s.totalPaid = (SELECT COALESCE(SUM(sr.totalAmount), 0) FROM SessionRecord sr " +
+            "WHERE sr.student.id = s.id AND sr.paid = true), " +
+            "s.totalUnpaid = (SELECT COALESCE(SUM(sr.totalAmount), 0) FROM SessionRecord sr " +
+            "WHERE sr.student.id = s.id AND sr.paid = false), " +
+            "s.lastActiveMonth = (SELECT MAX(sr.month) FROM SessionRecord sr WHERE sr.student.id = s.id)")
+    int refreshAllSessionSummaries();
 }
@@ -0,0 +1,259 @@
+package com.tutor_management.backend.service;
+
+import com.tutor_management.backend.dto.response.DashboardDelta;
+import com.tutor_management.backend.dto.response.MonthlyStats;
+import com.tutor_management.backend.dto.response.StudentSessionSummary;
+import com.tutor_management.backend.entity.MonthlyRollup;
+import com.tutor_management.backend.entity.Student;
+import com.tutor_management.backend.event.DocumentsChangedEvent;
+import com.tutor_management.backend.event.SessionRecordsChangedEvent;
+import com.tutor_management.backend.event.StudentsChangedEvent;
+import com.tutor_management.backend.repository.DocumentRepository;
+import com.tutor_management.backend.repository.MonthlyRollupRepository;
+import com.tutor_management.backend.repository.StudentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Đẩy thay đổi dashboard tới trình duyệt qua Server-Sent Events thay vì để client polling.
+ * Mỗi subscriber có hàng đợi giới hạn và 1 virtual thread riêng để gửi, nên client chậm không chặn client khác.
+ * Khi hàng đợi đầy, các delta đang chờ bị gộp thành 1 sự kiện "resync" (client tải lại toàn bộ).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardEventService {
+
+    // EventSource tự kết nối lại khi hết hạn
+    private static final long EMITTER_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(30);
+    private static final int QUEUE_CAPACITY = 32;
+    // Gửi bị treo quá lâu = client không còn đọc, đóng kết nối
+    private static final long STALLED_SEND_LIMIT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> RESYNC_EVENT =
+            SseEmitter.event().name("resync").data("{}", MediaType.APPLICATION_JSON).build();
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> HEARTBEAT_EVENT =
+            SseEmitter.event().comment("ping").build();
+
+    private final StudentRepository studentRepository;
+    private final MonthlyRollupRepository monthlyRollupRepository;
+    private final DocumentRepository documentRepository;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        subscribers.add(subscriber);
+        executor.execute(subscriber::run);
+        subscriber.offer(HEARTBEAT_EVENT);
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionRecordsChanged(SessionRecordsChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        // Đọc dữ liệu mới và gửi ngoài thread của request đã commit
+        executor.execute(() -> {
+            if (event.getStudentIds().isEmpty() || event.getMonths().isEmpty()) {
+                broadcast(RESYNC_EVENT);
+                return;
+            }
+            DashboardDelta delta = DashboardDelta.builder()
+                    .students(studentRepository.findAllById(event.getStudentIds()).stream()
+                            .map(this::toSummary)
+                            .collect(Collectors.toList()))
+                    .months(loadMonths(event.getMonths()))
+                    .build();
+            broadcast(toEvent("sessions", delta));
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentsChanged(StudentsChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        executor.execute(() -> {
+            if (event.getStudentId() == null) {
+                broadcast(RESYNC_EVENT);
+                return;
+            }
+            Optional<Student> student = studentRepository.findById(event.getStudentId());
+            DashboardDelta delta = DashboardDelta.builder()
+                    .students(student.map(s -> List.of(toSummary(s))).orElse(null))
+                    .removedStudentIds(student.isPresent() ? null : List.of(event.getStudentId()))
+                    .totalStudents((int) studentRepository.count())
+                    .build();
+            broadcast(toEvent("students", delta));
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDocumentsChanged(DocumentsChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        executor.execute(() -> broadcast(toEvent("documents", DashboardDelta.builder()
+                .totalDocuments(documentRepository.count())
+                .build())));
+    }
+
+    // Giữ kết nối qua proxy và phát hiện client đã bỏ đi / không đọc nữa
+    @Scheduled(fixedDelay = 15_000)
+    public void heartbeatAndReap() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long since = subscriber.sendingSince;
+            if (since != 0 && now - since > STALLED_SEND_LIMIT_NANOS) {
+                log.debug("Dropping stalled SSE subscriber");
+                subscriber.close();
+            } else if (subscriber.queue.isEmpty()) {
+                subscriber.offer(HEARTBEAT_EVENT);
+            }
+        }
+    }
+
+    // ContextClosedEvent đến trước khi web server dừng: đóng stream SSE để graceful shutdown không phải chờ tới timeout
+    @EventListener(ContextClosedEvent.class)
+    public void onContextClosed() {
+        subscribers.forEach(Subscriber::close);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(Subscriber::close);
+        executor.shutdownNow();
+    }
+
+    private void broadcast(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> toEvent(String name, DashboardDelta delta) {
+        // Build 1 lần, dùng chung cho mọi subscriber
+        return SseEmitter.event().name(name).data(delta, MediaType.APPLICATION_JSON).build();
+    }
+
+    private List<MonthlyStats> loadMonths(Set<String> months) {
+        Map<String, MonthlyRollup> rollups = monthlyRollupRepository.findAllById(months)
+                .stream()
+                .collect(Collectors.toMap(MonthlyRollup::getMonth, Function.identity()));
+
+        List<MonthlyStats> result = new ArrayList<>();
+        for (String month : months) {
+            MonthlyRollup rollup = rollups.get(month);
+            result.add(MonthlyStats.builder()
+                    .month(month)
+                    .totalPaid(rollup != null ? rollup.getTotalPaid() : 0L)
+                    .totalUnpaid(rollup != null ? rollup.getTotalUnpaid() : 0L)
+                    .totalSessions(rollup != null ? rollup.getTotalSessions().intValue() : 0)
+                    .build());
+        }
+        return result;
+    }
+
+    private StudentSessionSummary toSummary(Student student) {
+        return new StudentSessionSummary(
+                student.getId(), student.getTotalPaid(), student.getTotalUnpaid(), student.getLastActiveMonth());
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue =
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private volatile boolean closed;
+        private volatile long sendingSince; // 0 = không đang gửi
+        private volatile Thread worker;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                // Client chậm: bỏ các delta đang chờ, chỉ giữ yêu cầu resync
+                queue.clear();
+                queue.offer(RESYNC_EVENT);
+            }
+        }
+
+        void run() {
+            worker = Thread.currentThread();
+            try {
+                while (!closed) {
+                    Set<ResponseBodyEmitter.DataWithMediaType> event = queue.take();
+                    sendingSince = System.nanoTime();
+                    emitter.send(event);
+                    sendingSince = 0;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // Client đã ngắt kết nối
+                log.debug("SSE send failed: {}", e.getMessage());
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            subscribers.remove(this);
+            Thread thread = worker;
+            if (thread != null && thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+            // complete() có thể chờ lock của lần send đang treo, chạy trên virtual thread riêng
+            executor.execute(() -> {
+                try {
+                    emitter.complete();
+                } catch (Exception ignored) {
+                    // Đã đóng
+                }
+            });
+        }
+    }
+}
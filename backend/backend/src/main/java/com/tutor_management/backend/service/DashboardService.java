@@ -2,58 +2,53 @@ package com.tutor_management.backend.service;
 
 import com.tutor_management.backend.dto.response.DashboardStats;
 import com.tutor_management.backend.dto.response.MonthlyStats;
-import com.tutor_management.backend.repository.SessionRecordRepository;
+import com.tutor_management.backend.entity.MonthlyRollup;
+import com.tutor_management.backend.repository.MonthlyRollupRepository;
 import com.tutor_management.backend.repository.StudentRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 // ============= Dashboard Service =============
+// Đọc từ monthly_rollup (O(số tháng)) thay vì quét session_records
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class DashboardService {
 
     private final StudentRepository studentRepository;
-    private final SessionRecordRepository sessionRecordRepository;
+    private final MonthlyRollupRepository monthlyRollupRepository;
 
     public DashboardStats getDashboardStats(String currentMonth) {
         int totalStudents = (int) studentRepository.count();
 
-        Long totalPaid = sessionRecordRepository.sumTotalPaid();
-        Long totalUnpaid = sessionRecordRepository.sumTotalUnpaid();
+        Long totalPaid = monthlyRollupRepository.sumTotalPaid();
+        Long totalUnpaid = monthlyRollupRepository.sumTotalUnpaid();
 
-        Long currentMonthTotal = sessionRecordRepository.sumTotalPaidByMonth(currentMonth);
-        Long currentMonthUnpaid = sessionRecordRepository.sumTotalUnpaidByMonth(currentMonth);
+        Optional<MonthlyRollup> current = monthlyRollupRepository.findById(currentMonth);
 
         return DashboardStats.builder()
                 .totalStudents(totalStudents)
                 .totalPaidAllTime(totalPaid != null ? totalPaid : 0L)
                 .totalUnpaidAllTime(totalUnpaid != null ? totalUnpaid : 0L)
-                .currentMonthTotal(currentMonthTotal != null ? currentMonthTotal : 0L)
-                .currentMonthUnpaid(currentMonthUnpaid != null ? currentMonthUnpaid : 0L)
+                .currentMonthTotal(current.map(MonthlyRollup::getTotalPaid).orElse(0L))
+                .currentMonthUnpaid(current.map(MonthlyRollup::getTotalUnpaid).orElse(0L))
                 .build();
     }
 
     public List<MonthlyStats> getMonthlyStats() {
-        List<String> months = sessionRecordRepository.findDistinctMonths();
-
-        return months.stream()
-                .map(month -> {
-                    Long totalPaid = sessionRecordRepository.sumTotalPaidByMonth(month);
-                    Long totalUnpaid = sessionRecordRepository.sumTotalUnpaidByMonth(month);
-                    Integer totalSessions = sessionRecordRepository.sumSessionsByMonth(month);
-
-                    return MonthlyStats.builder()
-                            .month(month)
-                            .totalPaid(totalPaid != null ? totalPaid : 0L)
-                            .totalUnpaid(totalUnpaid != null ? totalUnpaid : 0L)
-                            .totalSessions(totalSessions != null ? totalSessions : 0)
-                            .build();
-                })
+        return monthlyRollupRepository.findByTotalSessionsGreaterThanOrderByMonthDesc(0L)
+                .stream()
+                .map(rollup -> MonthlyStats.builder()
+                        .month(rollup.getMonth())
+                        .totalPaid(rollup.getTotalPaid())
+                        .totalUnpaid(rollup.getTotalUnpaid())
+                        .totalSessions(rollup.getTotalSessions().intValue())
+                        .build())
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,97 @@
+package com.tutor_management.backend.service;
+
+import com.tutor_management.backend.event.DocumentsChangedEvent;
+import com.tutor_management.backend.repository.DocumentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Đếm lượt tải tài liệu trong bộ nhớ (LongAdder mỗi tài liệu), request tải không ghi database.
+ * Định kỳ ghi phần chênh lệch bằng UPDATE downloadCount = downloadCount + ?, gộp các tài liệu
+ * cùng số lượt tăng vào 1 câu lệnh; khi tắt ứng dụng ghi nốt phần còn lại.
+ */
+@Slf4j
+@Service
+public class DocumentDownloadCounter {
+
+    private final DocumentRepository documentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    public DocumentDownloadCounter(DocumentRepository documentRepository,
+                                   ApplicationEventPublisher eventPublisher,
+                                   PlatformTransactionManager transactionManager) {
+        this.documentRepository = documentRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void increment(Long documentId) {
+        counters.computeIfAbsent(documentId, id -> new Counter()).downloads.increment();
+    }
+
+    // Tài liệu đã xoá: bỏ phần chưa ghi
+    public void forget(Long documentId) {
+        counters.remove(documentId);
+    }
+
+    @Scheduled(fixedDelay = 5_000)
+    public synchronized void flush() {
+        // Adder chỉ tăng, không reset: phần chênh lệch so với lần ghi trước không bao giờ bị mất,
+        // lượt tải đến sau khi đọc sum() sẽ được ghi ở lần flush kế tiếp
+        Map<Long, Long> totals = new HashMap<>();
+        Map<Long, List<Long>> idsByDelta = new HashMap<>();
+        counters.forEach((id, counter) -> {
+            long total = counter.downloads.sum();
+            if (total > counter.flushed) {
+                totals.put(id, total);
+                idsByDelta.computeIfAbsent(total - counter.flushed, delta -> new ArrayList<>()).add(id);
+            }
+        });
+        if (totals.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                idsByDelta.forEach((delta, ids) -> documentRepository.incrementDownloadCounts(ids, delta));
+                eventPublisher.publishEvent(new DocumentsChangedEvent(null));
+            });
+        } catch (RuntimeException e) {
+            // Giữ nguyên flushed, lần sau ghi lại cả phần này
+            log.warn("Could not flush download counts for {} documents", totals.size(), e);
+            return;
+        }
+
+        totals.forEach((id, total) -> {
+            Counter counter = counters.get(id);
+            if (counter != null) {
+                counter.flushed = total;
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private static final class Counter {
+        private final LongAdder downloads = new LongAdder();
+        // Chỉ đọc/ghi trong flush() (synchronized)
+        private long flushed;
+    }
+}
@@ -3,20 +3,33 @@ package com.tutor_management.backend.service;
 //import com.tutor_management.backend.dto.*;
 import com.tutor_management.backend.dto.request.DocumentRequest;
 import com.tutor_management.backend.dto.response.DocumentCategoryStats;
+import com.tutor_management.backend.dto.response.DocumentCategoryTotals;
+import com.tutor_management.backend.dto.response.DocumentFile;
 import com.tutor_management.backend.dto.response.DocumentResponse;
 import com.tutor_management.backend.dto.response.DocumentStats;
 import com.tutor_management.backend.dto.response.DocumentUploadResponse;
 import com.tutor_management.backend.entity.*;
+import com.tutor_management.backend.event.DocumentsChangedEvent;
 import com.tutor_management.backend.repository.*;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional
@@ -25,6 +38,8 @@ public class DocumentService {
     private final DocumentRepository documentRepository;
     private final StudentRepository studentRepository;
     private final FileStorageService fileStorageService;
+    private final DocumentDownloadCounter documentDownloadCounter;
+    private final ApplicationEventPublisher eventPublisher;
     private final DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
 
     public List<DocumentResponse> getAllDocuments() {
@@ -59,13 +74,28 @@ public class DocumentService {
 
         // Validate file type (only allow PDF, DOC, DOCX, PPT, PPTX, etc.)
         String contentType = file.getContentType();
-        if (!isValidFileType(contentType)) {
-            throw new RuntimeException("Invalid file type. Only PDF, DOC, DOCX, PPT, PPTX allowed");
-        }
+        validateFileType(contentType);
 
         // Store file
         String fileName = fileStorageService.storeFile(file);
 
+        return createDocument(fileName, file.getOriginalFilename(), file.getSize(), contentType, request);
+    }
+
+    public void validateFileType(String contentType) {
+        if (!isValidFileType(contentType)) {
+            throw new RuntimeException("Invalid file type. Only PDF, DOC, DOCX, PPT, PPTX allowed");
+        }
+    }
+
+    // Tạo Document cho file đã lưu (upload 1 lần hoặc upload chia chunk)
+    public DocumentUploadResponse createDocument(
+            String storedFileName,
+            String originalFileName,
+            long fileSize,
+            String contentType,
+            DocumentRequest request
+    ) {
         // Get student if provided
         Student student = null;
         if (request.getStudentId() != null) {
@@ -76,9 +106,9 @@ public class DocumentService {
         // Create document entity
         Document document = Document.builder()
                 .title(request.getTitle())
-                .fileName(file.getOriginalFilename())
-                .filePath(fileName)
-                .fileSize(file.getSize())
+                .fileName(originalFileName)
+                .filePath(storedFileName)
+                .fileSize(fileSize)
                 .fileType(contentType)
                 .category(request.getCategory())
                 .description(request.getDescription())
@@ -87,6 +117,7 @@ public class DocumentService {
                 .build();
 
         Document saved = documentRepository.save(document);
+        eventPublisher.publishEvent(new DocumentsChangedEvent(saved.getId()));
 
         return DocumentUploadResponse.builder()
                 .id(saved.getId())
@@ -102,55 +133,88 @@ public class DocumentService {
         return convertToResponse(document);
     }
 
-    public Resource downloadDocument(Long id) {
+    // 1 lần đọc Document cho cả tên, kiểu, đường dẫn file và hash nội dung (ETag)
+    @Transactional(readOnly = true)
+    public DocumentFile getDocumentFile(Long id) {
         Document document = documentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Document not found"));
-
-        // Increment download count
-        document.setDownloadCount(document.getDownloadCount() + 1);
-        documentRepository.save(document);
-
-        return fileStorageService.loadFileAsResource(document.getFilePath());
+        return DocumentFile.builder()
+                .fileName(document.getFileName())
+                .fileType(document.getFileType())
+                .path(fileStorageService.resolveFile(document.getFilePath()))
+                .contentHash(FileStorageService.contentHash(document.getFilePath()))
+                .build();
     }
 
-    public Resource previewDocument(Long id) {
-        Document document = documentRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Document not found"));
-
-        // Don't increment download count for preview
-        return fileStorageService.loadFileAsResource(document.getFilePath());
+    // Đếm trong bộ nhớ, DocumentDownloadCounter ghi xuống database theo lô
+    public void recordDownload(Long id) {
+        documentDownloadCounter.increment(id);
     }
 
     public void deleteDocument(Long id) {
         Document document = documentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Document not found"));
 
-        // Delete physical file
-        fileStorageService.deleteFile(document.getFilePath());
-
         // Delete from database
         documentRepository.delete(document);
+
+        // File có thể dùng chung với tài liệu khác: chỉ xoá khi không còn tài liệu nào trỏ tới
+        fileStorageService.releaseFile(document.getFilePath());
+        documentDownloadCounter.forget(id);
+        eventPublisher.publishEvent(new DocumentsChangedEvent(id));
+    }
+
+    // Backfill một lần: file cũ lưu theo tên UUID được chuyển sang lưu theo nội dung,
+    // để tài liệu cũ cũng dùng chung blob và có ETag là hash nội dung.
+    // Chạy trong 1 transaction: rollback thì blob mới bị xoá, file cũ chỉ bị xoá sau commit.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillContentAddressedFiles() {
+        for (Document document : documentRepository.findWithLegacyFilePath()) {
+            String legacyFileName = document.getFilePath();
+            Path legacyFile;
+            try {
+                legacyFile = fileStorageService.resolveFile(legacyFileName);
+            } catch (RuntimeException ex) {
+                log.warn("Skipping document {}: file {} not found", document.getId(), legacyFileName);
+                continue;
+            }
+
+            try (InputStream in = Files.newInputStream(legacyFile)) {
+                document.setFilePath(fileStorageService.storeFile(in));
+            } catch (IOException ex) {
+                throw new RuntimeException("Could not migrate file " + legacyFileName, ex);
+            }
+            fileStorageService.releaseFile(legacyFileName);
+        }
     }
 
     public DocumentStats getStatistics() {
-        Long totalDocuments = documentRepository.count();
-        Long totalSize = documentRepository.sumTotalFileSize();
-        Long totalDownloads = documentRepository.sumTotalDownloads();
+        // 1 query GROUP BY category thay cho count/sum riêng và countByCategory từng danh mục
+        Map<DocumentCategory, Long> counts = new EnumMap<>(DocumentCategory.class);
+        long totalDocuments = 0;
+        long totalSize = 0;
+        long totalDownloads = 0;
+        for (DocumentCategoryTotals totals : documentRepository.summarizeByCategory()) {
+            counts.put(totals.getCategory(), totals.getDocuments());
+            totalDocuments += totals.getDocuments();
+            totalSize += totals.getTotalSize();
+            totalDownloads += totals.getTotalDownloads();
+        }
 
         DocumentCategoryStats categoryStats = DocumentCategoryStats.builder()
-                .grammar(documentRepository.countByCategory(DocumentCategory.GRAMMAR))
-                .vocabulary(documentRepository.countByCategory(DocumentCategory.VOCABULARY))
-                .reading(documentRepository.countByCategory(DocumentCategory.READING))
-                .listening(documentRepository.countByCategory(DocumentCategory.LISTENING))
-                .speaking(documentRepository.countByCategory(DocumentCategory.SPEAKING))
-                .writing(documentRepository.countByCategory(DocumentCategory.WRITING))
-                .exercises(documentRepository.countByCategory(DocumentCategory.EXERCISES))
-                .exam(documentRepository.countByCategory(DocumentCategory.EXAM))
-                .pet(documentRepository.countByCategory(DocumentCategory.PET))
-                .fce(documentRepository.countByCategory(DocumentCategory.FCE))
-                .ielts(documentRepository.countByCategory(DocumentCategory.IELTS))
-                .toeic(documentRepository.countByCategory(DocumentCategory.TOEIC))
-                .other(documentRepository.countByCategory(DocumentCategory.OTHER))
+                .grammar(counts.getOrDefault(DocumentCategory.GRAMMAR, 0L))
+                .vocabulary(counts.getOrDefault(DocumentCategory.VOCABULARY, 0L))
+                .reading(counts.getOrDefault(DocumentCategory.READING, 0L))
+                .listening(counts.getOrDefault(DocumentCategory.LISTENING, 0L))
+                .speaking(counts.getOrDefault(DocumentCategory.SPEAKING, 0L))
+                .writing(counts.getOrDefault(DocumentCategory.WRITING, 0L))
+                .exercises(counts.getOrDefault(DocumentCategory.EXERCISES, 0L))
+                .exam(counts.getOrDefault(DocumentCategory.EXAM, 0L))
+                .pet(counts.getOrDefault(DocumentCategory.PET, 0L))
+                .fce(counts.getOrDefault(DocumentCategory.FCE, 0L))
+                .ielts(counts.getOrDefault(DocumentCategory.IELTS, 0L))
+                .toeic(counts.getOrDefault(DocumentCategory.TOEIC, 0L))
+                .other(counts.getOrDefault(DocumentCategory.OTHER, 0L))
                 .build();
 
         return DocumentStats.builder()
@@ -0,0 +1,290 @@
+package com.tutor_management.backend.service;
+
+import com.tutor_management.backend.dto.request.DocumentRequest;
+import com.tutor_management.backend.dto.request.DocumentUploadSessionRequest;
+import com.tutor_management.backend.dto.response.DocumentUploadResponse;
+import com.tutor_management.backend.dto.response.DocumentUploadSessionResponse;
+import com.tutor_management.backend.entity.DocumentUpload;
+import com.tutor_management.backend.repository.DocumentUploadRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Upload chia chunk cho tài liệu lớn: tạo phiên (file tạm cấp sẵn đủ dung lượng), PUT từng chunk
+ * ghi thẳng vào đúng vị trí bằng FileChannel (không giữ chunk trong bộ nhớ), hỏi các chunk đã nhận
+ * để tải tiếp, rồi hoàn tất thành Document. Chunk có thể gửi song song và theo thứ tự bất kỳ;
+ * chỉ bước đánh dấu bitmap mới khoá dòng của phiên (transaction ngắn, không ôm lúc đọc từ mạng).
+ */
+@Slf4j
+@Service
+public class DocumentUploadService {
+
+    static final int MIN_CHUNK_SIZE = 256 * 1024;
+    static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+    static final int MAX_CHUNK_SIZE = 32 * 1024 * 1024;
+    static final long MAX_FILE_SIZE = 2L * 1024 * 1024 * 1024;
+    static final int MAX_CHUNKS = 8 * 1024; // Vừa cột bitmap 1024 byte
+    static final long EXPIRY_HOURS = 24;
+
+    private final DocumentUploadRepository documentUploadRepository;
+    private final DocumentService documentService;
+    private final FileStorageService fileStorageService;
+    private final TransactionTemplate transactionTemplate;
+
+    public DocumentUploadService(DocumentUploadRepository documentUploadRepository,
+                                 DocumentService documentService,
+                                 FileStorageService fileStorageService,
+                                 PlatformTransactionManager transactionManager) {
+        this.documentUploadRepository = documentUploadRepository;
+        this.documentService = documentService;
+        this.fileStorageService = fileStorageService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public DocumentUploadSessionResponse createUpload(DocumentUploadSessionRequest request) {
+        documentService.validateFileType(request.getFileType());
+        if (request.getFileSize() > MAX_FILE_SIZE) {
+            throw new RuntimeException("File is too large");
+        }
+
+        int chunkSize = request.getChunkSize() != null ? request.getChunkSize() : DEFAULT_CHUNK_SIZE;
+        if (chunkSize < MIN_CHUNK_SIZE || chunkSize > MAX_CHUNK_SIZE) {
+            throw new RuntimeException("Chunk size must be between " + MIN_CHUNK_SIZE + " and " + MAX_CHUNK_SIZE);
+        }
+        long totalChunks = (request.getFileSize() + chunkSize - 1) / chunkSize;
+        if (totalChunks > MAX_CHUNKS) {
+            throw new RuntimeException("Too many chunks, use a larger chunk size");
+        }
+
+        DocumentUpload upload = DocumentUpload.builder()
+                .id(UUID.randomUUID().toString())
+                .title(request.getTitle())
+                .category(request.getCategory())
+                .description(request.getDescription())
+                .studentId(request.getStudentId())
+                .fileName(request.getFileName())
+                .fileType(request.getFileType())
+                .fileSize(request.getFileSize())
+                .chunkSize(chunkSize)
+                .totalChunks((int) totalChunks)
+                .receivedChunks(new byte[0])
+                .build();
+
+        // Cấp sẵn đủ dung lượng: chunk nào tới cũng ghi thẳng vào vị trí của nó
+        Path part = partFile(upload.getId());
+        try (RandomAccessFile file = new RandomAccessFile(part.toFile(), "rw")) {
+            file.setLength(upload.getFileSize());
+        } catch (IOException ex) {
+            deletePartFile(upload.getId());
+            throw new RuntimeException("Could not create upload file", ex);
+        }
+
+        try {
+            return convertToResponse(documentUploadRepository.save(upload));
+        } catch (RuntimeException ex) {
+            deletePartFile(upload.getId());
+            throw ex;
+        }
+    }
+
+    public DocumentUploadSessionResponse getUpload(String uploadId) {
+        return convertToResponse(findUpload(uploadId));
+    }
+
+    public DocumentUploadSessionResponse writeChunk(String uploadId, int index, long contentLength,
+                                                    InputStream body) throws IOException {
+        DocumentUpload upload = findUpload(uploadId);
+        if (index < 0 || index >= upload.getTotalChunks()) {
+            throw new RuntimeException("Chunk index out of range: " + index);
+        }
+
+        long offset = (long) index * upload.getChunkSize();
+        long length = Math.min(upload.getChunkSize(), upload.getFileSize() - offset);
+        if (contentLength >= 0 && contentLength != length) {
+            throw new RuntimeException("Chunk " + index + " must be " + length + " bytes");
+        }
+
+        // Ghi chunk ngoài transaction: không giữ connection hay khoá dòng trong lúc đọc từ mạng.
+        // Mỗi chunk có vùng byte riêng, ghi lại cùng chunk cũng vô hại; chỉ đánh dấu bitmap cần khoá.
+        try {
+            writeToPartFile(uploadId, index, offset, length, body);
+        } catch (NoSuchFileException ex) {
+            // Phiên vừa bị hoàn tất hoặc huỷ
+            throw new RuntimeException("Upload not found");
+        }
+
+        // Transaction ngắn: phiên vẫn còn (chưa hoàn tất/huỷ) thì mới đánh dấu đã nhận
+        BitSet received = transactionTemplate.execute(status -> {
+            BitSet bits = BitSet.valueOf(lockReceivedChunks(uploadId));
+            bits.set(index);
+            documentUploadRepository.updateReceivedChunks(uploadId, bits.toByteArray(), LocalDateTime.now());
+            return bits;
+        });
+        return convertToResponse(upload, received);
+    }
+
+    // Đủ chunk: move file tạm vào kho (chỉ đọc 1 lượt để tính hash, không ghi lại) và tạo Document
+    // trong cùng transaction. Rollback thì file tạm được trả lại, phiên còn nguyên để hoàn tất lại.
+    public DocumentUploadResponse completeUpload(String uploadId) {
+        return transactionTemplate.execute(status -> {
+            BitSet received = BitSet.valueOf(lockReceivedChunks(uploadId));
+            DocumentUpload upload = findUpload(uploadId);
+            if (received.cardinality() != upload.getTotalChunks()) {
+                throw new RuntimeException("Upload is incomplete");
+            }
+
+            String fileName;
+            try {
+                fileName = fileStorageService.storeFile(partFile(uploadId));
+            } catch (IOException ex) {
+                throw new RuntimeException("Could not store file " + upload.getFileName(), ex);
+            }
+
+            DocumentRequest request = new DocumentRequest();
+            request.setTitle(upload.getTitle());
+            request.setCategory(upload.getCategory());
+            request.setDescription(upload.getDescription());
+            request.setStudentId(upload.getStudentId());
+
+            documentUploadRepository.delete(upload);
+            return documentService.createDocument(fileName, upload.getFileName(), upload.getFileSize(),
+                    upload.getFileType(), request);
+        });
+    }
+
+    public void abortUpload(String uploadId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            lockReceivedChunks(uploadId);
+            documentUploadRepository.deleteById(uploadId);
+            deletePartFileAfterCommit(uploadId);
+        });
+    }
+
+    // Dọn các phiên bị bỏ dở quá lâu
+    @Scheduled(fixedDelay = 60 * 60 * 1000)
+    public void cleanupExpiredUploads() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(EXPIRY_HOURS);
+        for (DocumentUpload upload : documentUploadRepository.findByUpdatedAtBefore(cutoff)) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    // Chunk vừa tới trong lúc dọn thì giữ lại phiên
+                    if (documentUploadRepository.findReceivedChunksForUpdate(upload.getId()).isPresent()
+                            && !findUpload(upload.getId()).getUpdatedAt().isAfter(cutoff)) {
+                        documentUploadRepository.deleteById(upload.getId());
+                        deletePartFileAfterCommit(upload.getId());
+                    }
+                });
+            } catch (RuntimeException ex) {
+                log.warn("Could not remove expired upload {}", upload.getId(), ex);
+            }
+        }
+    }
+
+    // Đọc từ socket ghi thẳng vào file ở đúng offset, không gom chunk vào bộ nhớ
+    private void writeToPartFile(String uploadId, int index, long offset, long length,
+                                 InputStream body) throws IOException {
+        try (FileChannel channel = FileChannel.open(partFile(uploadId), StandardOpenOption.WRITE)) {
+            ReadableByteChannel source = Channels.newChannel(body);
+            long written = 0;
+            while (written < length) {
+                long n = channel.transferFrom(source, offset + written, length - written);
+                if (n <= 0) {
+                    break;
+                }
+                written += n;
+            }
+            if (written != length || body.read() != -1) {
+                throw new RuntimeException("Chunk " + index + " must be " + length + " bytes");
+            }
+            // Dữ liệu phải xuống đĩa trước khi đánh dấu đã nhận
+            channel.force(false);
+        }
+    }
+
+    private byte[] lockReceivedChunks(String uploadId) {
+        return documentUploadRepository.findReceivedChunksForUpdate(uploadId)
+                .orElseThrow(() -> new RuntimeException("Upload not found"));
+    }
+
+    private DocumentUpload findUpload(String uploadId) {
+        return documentUploadRepository.findById(uploadId)
+                .orElseThrow(() -> new RuntimeException("Upload not found"));
+    }
+
+    private Path partFile(String uploadId) {
+        // uploadId đi từ URL: chỉ nhận đúng dạng UUID để không thoát khỏi thư mục tạm
+        return fileStorageService.tempFile(UUID.fromString(uploadId) + ".part");
+    }
+
+    private void deletePartFileAfterCommit(String uploadId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deletePartFile(uploadId);
+            }
+        });
+    }
+
+    private void deletePartFile(String uploadId) {
+        try {
+            Files.deleteIfExists(partFile(uploadId));
+        } catch (IOException ex) {
+            log.warn("Could not delete upload file {}", uploadId, ex);
+        }
+    }
+
+    private DocumentUploadSessionResponse convertToResponse(DocumentUpload upload) {
+        return convertToResponse(upload, BitSet.valueOf(upload.getReceivedChunks()));
+    }
+
+    private DocumentUploadSessionResponse convertToResponse(DocumentUpload upload, BitSet received) {
+
+        List<DocumentUploadSessionResponse.ChunkRange> ranges = new ArrayList<>();
+        for (int first = received.nextSetBit(0); first >= 0; ) {
+            int end = received.nextClearBit(first);
+            ranges.add(DocumentUploadSessionResponse.ChunkRange.builder()
+                    .first(first)
+                    .last(end - 1)
+                    .build());
+            first = received.nextSetBit(end);
+        }
+
+        // Chỉ chunk cuối có thể ngắn hơn chunkSize
+        long receivedBytes = (long) received.cardinality() * upload.getChunkSize();
+        if (received.get(upload.getTotalChunks() - 1)) {
+            receivedBytes -= (long) upload.getTotalChunks() * upload.getChunkSize() - upload.getFileSize();
+        }
+
+        return DocumentUploadSessionResponse.builder()
+                .uploadId(upload.getId())
+                .fileName(upload.getFileName())
+                .fileSize(upload.getFileSize())
+                .chunkSize(upload.getChunkSize())
+                .totalChunks(upload.getTotalChunks())
+                .receivedBytes(receivedBytes)
+                .receivedChunks(ranges)
+                .complete(received.cardinality() == upload.getTotalChunks())
+                .build();
+    }
+}
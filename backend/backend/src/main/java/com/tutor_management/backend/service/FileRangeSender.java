@@ -0,0 +1,187 @@
+package com.tutor_management.backend.service;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gửi file đã lưu qua HTTP: Range/206 (kể cả nhiều đoạn), ETag/Last-Modified, 304/412.
+ * ETag mạnh là hash nội dung khi file lưu theo nội dung, nếu không thì lấy từ kích thước + thời gian sửa.
+ * Với 1 đoạn, dữ liệu đi thẳng từ file ra socket bằng sendfile của Tomcat nếu connector hỗ trợ (zero-copy).
+ * Không có sendfile (hoặc multipart/byteranges) thì FileChannel.transferTo ghi qua ServletOutputStream:
+ * servlet API chỉ nhận byte[], nên mỗi lần copy qua 1 buffer nhỏ, không bao giờ đọc cả file vào bộ nhớ.
+ */
+@Component
+public class FileRangeSender {
+
+    // Thuộc tính request Tomcat dùng cho sendfile
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * @param contentHash hash nội dung của file (vd. SHA-256), null nếu không biết
+     * @return status đã trả về (200, 206, 304, 412 hoặc 416)
+     */
+    public int send(Path file, String contentHash, String contentType, ContentDisposition disposition,
+                    CacheControl cacheControl, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long length = attributes.size();
+        // Header ngày chỉ chính xác tới giây
+        long lastModified = attributes.lastModifiedTime().toMillis() / 1000 * 1000;
+        String etag = contentHash != null
+                ? "\"" + contentHash + "\""
+                : "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        // If-None-Match / If-Modified-Since / If-Match / If-Unmodified-Since, tự set ETag và Last-Modified
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return response.getStatus();
+        }
+
+        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition.toString());
+        boolean head = "HEAD".equals(request.getMethod());
+
+        List<HttpRange> ranges = requestedRanges(request, etag, lastModified);
+        if (ranges.isEmpty()) {
+            response.setContentLengthLong(length);
+            if (!head) {
+                transfer(file, 0, length, request, response);
+            }
+            return HttpServletResponse.SC_OK;
+        }
+
+        List<long[]> regions;
+        try {
+            regions = toRegions(ranges, length);
+        } catch (IllegalArgumentException e) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        if (regions.size() == 1) {
+            long start = regions.get(0)[0];
+            long end = regions.get(0)[1];
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            response.setContentLengthLong(end - start + 1);
+            if (!head) {
+                transfer(file, start, end - start + 1, request, response);
+            }
+            return HttpServletResponse.SC_PARTIAL_CONTENT;
+        }
+
+        // Nhiều đoạn: multipart/byteranges
+        String boundary = new String(MimeTypeUtils.generateMultipartBoundary(), StandardCharsets.US_ASCII);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        if (head) {
+            return HttpServletResponse.SC_PARTIAL_CONTENT;
+        }
+        ServletOutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (long[] region : regions) {
+                out.write(("\r\n--" + boundary + "\r\n"
+                        + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                        + HttpHeaders.CONTENT_RANGE + ": bytes " + region[0] + "-" + region[1] + "/" + length + "\r\n\r\n")
+                        .getBytes(StandardCharsets.US_ASCII));
+                transferTo(channel, region[0], region[1] - region[0] + 1, target);
+            }
+        }
+        out.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        return HttpServletResponse.SC_PARTIAL_CONTENT;
+    }
+
+    // Range không hợp lệ về cú pháp hoặc If-Range không khớp thì bỏ qua, trả nguyên file
+    private List<HttpRange> requestedRanges(HttpServletRequest request, String etag, long lastModified) {
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range == null) {
+            return List.of();
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag)) {
+            try {
+                if (request.getDateHeader(HttpHeaders.IF_RANGE) != lastModified) {
+                    return List.of();
+                }
+            } catch (IllegalArgumentException e) {
+                return List.of();
+            }
+        }
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+
+    // [start, end] (bao gồm 2 đầu); ném IllegalArgumentException nếu không đoạn nào thoả mãn được
+    private List<long[]> toRegions(List<HttpRange> ranges, long length) {
+        List<long[]> regions = new ArrayList<>(ranges.size());
+        long total = 0;
+        for (HttpRange range : ranges) {
+            long start = range.getRangeStart(length);
+            long end = range.getRangeEnd(length);
+            if (start >= length || start > end) {
+                throw new IllegalArgumentException("Unsatisfiable range: " + range);
+            }
+            regions.add(new long[]{start, end});
+            total += end - start + 1;
+        }
+        // Chặn yêu cầu nhiều đoạn chồng nhau để bắt server gửi nhiều hơn cả file
+        if (regions.size() > 1 && total > length) {
+            throw new IllegalArgumentException("Requested ranges exceed file length");
+        }
+        return regions;
+    }
+
+    private void transfer(Path file, long position, long count,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat gửi file sau khi handler trả về (sendfile của hệ điều hành)
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, position);
+            request.setAttribute(SENDFILE_END, position + count);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            transferTo(channel, position, count, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    private void transferTo(FileChannel channel, long position, long count, WritableByteChannel target)
+            throws IOException {
+        while (count > 0) {
+            long sent = channel.transferTo(position, count, target);
+            if (sent <= 0) {
+                throw new IOException("File truncated while sending");
+            }
+            position += sent;
+            count -= sent;
+        }
+    }
+}
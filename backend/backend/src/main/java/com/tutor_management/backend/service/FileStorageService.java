@@ -1,82 +1,175 @@
 package com.tutor_management.backend.service;
 
+import com.tutor_management.backend.repository.DocumentRepository;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.*;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
+/**
+ * Lưu file theo nội dung: tên file là SHA-256 của nội dung (uploads/ab/abcd...), cùng nội dung chỉ lưu 1 bản.
+ * Số tham chiếu của 1 blob = số dòng Document trỏ tới nó + số upload đang chờ commit (giữ trong bộ nhớ);
+ * blob chỉ bị xoá khi cả hai đều bằng 0. Kiểm tra và thao tác file của cùng 1 blob chạy dưới cùng 1 khoá.
+ */
 @Service
 public class FileStorageService {
 
+    private static final int LOCK_STRIPES = 64;
+    private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{64}");
+
     private final Path fileStorageLocation;
+    private final Path tempLocation;
+    private final DocumentRepository documentRepository;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    // Upload đã trỏ tới blob nhưng dòng Document chưa commit
+    private final Map<String, Integer> pendingUploads = new ConcurrentHashMap<>();
 
-    public FileStorageService(@Value("${file.upload-dir:uploads}") String uploadDir) {
+    public FileStorageService(@Value("${file.upload-dir:uploads}") String uploadDir,
+                              DocumentRepository documentRepository) {
         this.fileStorageLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.tempLocation = this.fileStorageLocation.resolve(".tmp");
+        this.documentRepository = documentRepository;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
 
         try {
-            Files.createDirectories(this.fileStorageLocation);
+            Files.createDirectories(this.tempLocation);
         } catch (Exception ex) {
             throw new RuntimeException("Could not create upload directory!", ex);
         }
     }
 
+    // Phải gọi trong transaction lưu Document: blob được giữ tới khi transaction kết thúc
     public String storeFile(MultipartFile file) {
-        // Normalize file name
-        String originalFileName = StringUtils.cleanPath(file.getOriginalFilename());
+        try (InputStream in = file.getInputStream()) {
+            return storeFile(in);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not store file " + file.getOriginalFilename(), ex);
+        }
+    }
 
-        try {
-            // Check if the file contains invalid characters
-            if (originalFileName.contains("..")) {
-                throw new RuntimeException("Invalid file path: " + originalFileName);
-            }
+    public String storeFile(InputStream content) throws IOException {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("storeFile must run inside a transaction");
+        }
 
-            // Generate unique file name
-            String fileExtension = "";
-            int dotIndex = originalFileName.lastIndexOf('.');
-            if (dotIndex > 0) {
-                fileExtension = originalFileName.substring(dotIndex);
-            }
-            String fileName = UUID.randomUUID().toString() + fileExtension;
+        // Ghi ra file tạm và tính SHA-256 trong cùng 1 lượt đọc
+        Path temp = tempFile(UUID.randomUUID().toString());
+        MessageDigest digest = sha256();
+        try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), digest)) {
+            content.transferTo(out);
+        } catch (IOException ex) {
+            Files.deleteIfExists(temp);
+            throw ex;
+        }
+        return storeBlob(temp, HexFormat.of().formatHex(digest.digest()), null);
+    }
 
-            // Copy file to the target location
-            Path targetLocation = this.fileStorageLocation.resolve(fileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+    // File đã ghi xong trong thư mục tạm (vd. upload chia chunk): chỉ đọc để tính hash rồi move vào kho,
+    // không ghi lại lần 2. Rollback thì file được trả về chỗ cũ (move lại, hoặc copy nếu blob đang được dùng chung).
+    public String storeFile(Path file) throws IOException {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("storeFile must run inside a transaction");
+        }
 
-            return fileName;
-        } catch (IOException ex) {
-            throw new RuntimeException("Could not store file " + originalFileName, ex);
+        MessageDigest digest = sha256();
+        try (InputStream in = Files.newInputStream(file);
+             OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+            in.transferTo(out);
         }
+        return storeBlob(file, HexFormat.of().formatHex(digest.digest()), file);
     }
 
-    public Resource loadFileAsResource(String fileName) {
-        try {
-            Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
+    // File tạm (cùng ổ đĩa với kho, để move là atomic)
+    public Path tempFile(String name) {
+        return tempLocation.resolve(name);
+    }
 
-            if (resource.exists()) {
-                return resource;
-            } else {
-                throw new RuntimeException("File not found: " + fileName);
+    // restoreTo: nơi trả file về khi rollback (null nếu file tạm do FileStorageService tự tạo)
+    private String storeBlob(Path temp, String sha256, Path restoreTo) throws IOException {
+        String fileName = blobName(sha256);
+        Path target = fileStorageLocation.resolve(fileName);
+        synchronized (lockFor(fileName)) {
+            try {
+                if (Files.exists(target)) {
+                    Files.delete(temp);
+                } else {
+                    Files.createDirectories(target.getParent());
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException ex) {
+                if (restoreTo == null) {
+                    Files.deleteIfExists(temp);
+                }
+                throw ex;
             }
-        } catch (Exception ex) {
-            throw new RuntimeException("File not found: " + fileName, ex);
+            pendingUploads.merge(fileName, 1, Integer::sum);
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (lockFor(fileName)) {
+                    pendingUploads.computeIfPresent(fileName, (name, count) -> count > 1 ? count - 1 : null);
+                    if (status != STATUS_COMMITTED && restoreTo != null) {
+                        restore(fileName, restoreTo);
+                    }
+                }
+                // Rollback: blob vừa lưu có thể không còn ai dùng
+                if (status != STATUS_COMMITTED) {
+                    deleteIfUnreferenced(fileName);
+                }
+            }
+        });
+        return fileName;
+    }
+
+    public Path resolveFile(String fileName) {
+        Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
+        if (!filePath.startsWith(this.fileStorageLocation) || !Files.isRegularFile(filePath)) {
+            throw new RuntimeException("File not found: " + fileName);
         }
+        return filePath;
     }
 
-    public void deleteFile(String fileName) {
-        try {
-            Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
-            Files.deleteIfExists(filePath);
-        } catch (IOException ex) {
-            throw new RuntimeException("Could not delete file: " + fileName, ex);
+    // Gọi sau khi xoá dòng Document: blob chỉ bị xoá (sau commit) nếu không còn dòng nào trỏ tới
+    public void releaseFile(String fileName) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteIfUnreferenced(fileName);
+                }
+            });
+        } else {
+            deleteIfUnreferenced(fileName);
         }
     }
 
+    // SHA-256 của file nếu tên lưu theo nội dung ("ab/abcd..."), null với file cũ lưu theo UUID
+    public static String contentHash(String fileName) {
+        int slash = fileName.indexOf('/');
+        String hash = fileName.substring(slash + 1);
+        if (slash != 2 || !CONTENT_HASH.matcher(hash).matches() || !hash.startsWith(fileName.substring(0, 2))) {
+            return null;
+        }
+        return hash;
+    }
+
     public String formatFileSize(long size) {
         if (size <= 0) return "0 B";
         final String[] units = new String[] { "B", "KB", "MB", "GB" };
@@ -85,4 +178,52 @@ public class FileStorageService {
                 size / Math.pow(1024, digitGroups),
                 units[digitGroups]);
     }
-}
\ No newline at end of file
+
+    // Gọi dưới khoá của blob
+    private void restore(String fileName, Path restoreTo) {
+        Path blob = this.fileStorageLocation.resolve(fileName);
+        try {
+            if (isReferenced(fileName)) {
+                Files.copy(blob, restoreTo, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.move(blob, restoreTo, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not restore file: " + restoreTo, ex);
+        }
+    }
+
+    private boolean isReferenced(String fileName) {
+        return pendingUploads.containsKey(fileName) || documentRepository.countByFilePath(fileName) > 0;
+    }
+
+    private void deleteIfUnreferenced(String fileName) {
+        synchronized (lockFor(fileName)) {
+            if (isReferenced(fileName)) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(this.fileStorageLocation.resolve(fileName).normalize());
+            } catch (IOException ex) {
+                throw new RuntimeException("Could not delete file: " + fileName, ex);
+            }
+        }
+    }
+
+    // Chia thư mục theo 2 ký tự đầu để 1 thư mục không chứa quá nhiều file
+    private String blobName(String sha256) {
+        return sha256.substring(0, 2) + "/" + sha256;
+    }
+
+    private Object lockFor(String fileName) {
+        return locks[Math.floorMod(fileName.hashCode(), LOCK_STRIPES)];
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.tutor_management.backend.service;
+
+import com.tutor_management.backend.dto.request.InvoiceRequest;
+import com.tutor_management.backend.dto.response.InvoiceResponse;
+import com.tutor_management.backend.repository.SessionRecordRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// ============= Invoice Batch Service =============
+// Tạo báo giá riêng cho nhiều học sinh: render song song trên virtual thread, tối đa MAX_CONCURRENT_RENDERS
+// file cùng lúc, ghi lần lượt vào ZIP đang stream ra response nên bộ nhớ không tăng theo số học sinh.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InvoiceBatchService {
+
+    static final int MAX_CONCURRENT_RENDERS = 8;
+
+    private final InvoiceService invoiceService;
+    private final InvoicePdfCache invoicePdfCache;
+    private final SessionRecordRepository sessionRecordRepository;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Học sinh sẽ có báo giá: còn buổi chưa thanh toán trong tháng, lọc theo danh sách nếu có
+    public List<Long> resolveStudentIds(String month, List<Long> studentIds) {
+        List<Long> candidates = sessionRecordRepository.findStudentIdsWithUnpaidSessions(month);
+        if (studentIds == null || studentIds.isEmpty()) {
+            return candidates;
+        }
+        Set<Long> requested = new HashSet<>(studentIds);
+        return candidates.stream()
+                .filter(requested::contains)
+                .toList();
+    }
+
+    public void writeZip(String month, List<Long> studentIds, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        zip.setLevel(Deflater.BEST_SPEED); // PDF đã nén sẵn, không đáng tốn CPU
+
+        // Cửa sổ trượt: giữ tối đa MAX_CONCURRENT_RENDERS task, ghi theo đúng thứ tự đã gửi
+        Deque<Future<RenderedInvoice>> inFlight = new ArrayDeque<>();
+        List<String> errors = new ArrayList<>();
+        try {
+            for (Long studentId : studentIds) {
+                if (inFlight.size() >= MAX_CONCURRENT_RENDERS) {
+                    writeEntry(zip, await(inFlight.removeFirst()), errors);
+                }
+                inFlight.addLast(executor.submit(() -> render(month, studentId)));
+            }
+            while (!inFlight.isEmpty()) {
+                writeEntry(zip, await(inFlight.removeFirst()), errors);
+            }
+        } finally {
+            // Client ngắt kết nối giữa chừng: huỷ các task còn lại
+            inFlight.forEach(future -> future.cancel(true));
+        }
+
+        if (!errors.isEmpty()) {
+            zip.putNextEntry(new ZipEntry("errors.txt"));
+            zip.write(String.join("\n", errors).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private RenderedInvoice render(String month, Long studentId) {
+        try {
+            InvoiceResponse invoice = invoiceService.generateInvoice(InvoiceRequest.builder()
+                    .studentId(studentId)
+                    .month(month)
+                    .build());
+            return new RenderedInvoice(studentId, fileName(invoice), invoicePdfCache.getOrRender(invoice), null);
+        } catch (Exception e) {
+            log.warn("Invoice render failed for student {} in {}", studentId, month, e);
+            return new RenderedInvoice(studentId, null, null, e.getMessage());
+        }
+    }
+
+    private RenderedInvoice await(Future<RenderedInvoice> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering invoices", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Invoice render failed", e.getCause());
+        }
+    }
+
+    private void writeEntry(ZipOutputStream zip, RenderedInvoice rendered, List<String> errors) throws IOException {
+        if (rendered.error() != null) {
+            errors.add("Student " + rendered.studentId() + ": " + rendered.error());
+            return;
+        }
+        zip.putNextEntry(new ZipEntry(rendered.fileName()));
+        try (InputStream in = rendered.pdf().getInputStream()) {
+            in.transferTo(zip);
+        }
+        zip.closeEntry();
+    }
+
+    private String fileName(InvoiceResponse invoice) {
+        String studentName = invoice.getStudentName().replaceAll("[\\\\/:*?\"<>|]", "_");
+        return "Bao-Gia-" + invoice.getInvoiceNumber() + "-" + studentName + ".pdf";
+    }
+
+    private record RenderedInvoice(Long studentId, String fileName, Resource pdf, String error) {}
+}
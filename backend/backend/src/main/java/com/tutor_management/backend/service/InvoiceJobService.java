@@ -0,0 +1,231 @@
+package com.tutor_management.backend.service;
+
+import com.tutor_management.backend.dto.request.InvoiceBatchRequest;
+import com.tutor_management.backend.dto.request.InvoiceRequest;
+import com.tutor_management.backend.dto.response.InvoiceJobResponse;
+import com.tutor_management.backend.dto.response.InvoiceResponse;
+import com.tutor_management.backend.entity.InvoiceJob;
+import com.tutor_management.backend.entity.InvoiceJobItem;
+import com.tutor_management.backend.entity.InvoiceJobItemStatus;
+import com.tutor_management.backend.entity.InvoiceJobStatus;
+import com.tutor_management.backend.event.InvoiceJobSubmittedEvent;
+import com.tutor_management.backend.repository.InvoiceJobItemRepository;
+import com.tutor_management.backend.repository.InvoiceJobRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// ============= Invoice Job Service =============
+// Tạo báo giá hàng loạt ngoài request thread: job và từng item được lưu trong database trước khi chạy,
+// MAX_RUNNING_JOBS worker xử lý lần lượt. Khi khởi động, job QUEUED/RUNNING được chạy tiếp từ item còn PENDING.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InvoiceJobService {
+
+    static final int MAX_RUNNING_JOBS = 2;
+
+    private final InvoiceJobRepository invoiceJobRepository;
+    private final InvoiceJobItemRepository invoiceJobItemRepository;
+    private final InvoiceBatchService invoiceBatchService;
+    private final InvoiceService invoiceService;
+    private final InvoicePdfCache invoicePdfCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
+    private final ExecutorService workers = Executors.newFixedThreadPool(MAX_RUNNING_JOBS);
+
+    // Job và item được commit cùng lúc; worker chỉ bắt đầu sau commit (onJobSubmitted) nên luôn đọc được job
+    @Transactional
+    public InvoiceJobResponse submit(InvoiceBatchRequest request) {
+        List<Long> studentIds = invoiceBatchService.resolveStudentIds(request.getMonth(), request.getStudentIds());
+        if (studentIds.isEmpty()) {
+            throw new RuntimeException("No sessions found for this month");
+        }
+
+        InvoiceJob job = invoiceJobRepository.save(InvoiceJob.builder()
+                .month(request.getMonth())
+                .status(InvoiceJobStatus.QUEUED)
+                .totalItems(studentIds.size())
+                .build());
+        List<InvoiceJobItem> items = invoiceJobItemRepository.saveAll(studentIds.stream()
+                .map(studentId -> InvoiceJobItem.builder()
+                        .job(job)
+                        .studentId(studentId)
+                        .status(InvoiceJobItemStatus.PENDING)
+                        .build())
+                .collect(Collectors.toList()));
+
+        eventPublisher.publishEvent(new InvoiceJobSubmittedEvent(job.getId()));
+        return convertToResponse(job, items);
+    }
+
+    @TransactionalEventListener
+    public void onJobSubmitted(InvoiceJobSubmittedEvent event) {
+        workers.submit(() -> run(event.getJobId()));
+    }
+
+    public InvoiceJobResponse getJob(Long id) {
+        InvoiceJob job = invoiceJobRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Invoice job not found"));
+        return convertToResponse(job, invoiceJobItemRepository.findByJobIdOrderByIdAsc(id));
+    }
+
+    // PDF của 1 item đã xong; render lại từ snapshot nếu file cache đã bị xoá.
+    // Rỗng nếu job hoặc item không tồn tại, IllegalStateException nếu item chưa xong.
+    public Optional<Resource> getItemPdf(Long jobId, Long itemId) throws Exception {
+        InvoiceJobItem item = invoiceJobItemRepository.findByIdAndJobId(itemId, jobId).orElse(null);
+        if (item == null) {
+            return Optional.empty();
+        }
+        if (item.getStatus() != InvoiceJobItemStatus.DONE) {
+            throw new IllegalStateException("Invoice job item not ready");
+        }
+        return Optional.of(invoicePdfCache.getOrRender(invoiceService.getInvoiceByNumber(item.getInvoiceNumber())));
+    }
+
+    public boolean isFinished(Long jobId) {
+        InvoiceJobStatus status = invoiceJobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Invoice job not found"))
+                .getStatus();
+        return status == InvoiceJobStatus.COMPLETED || status == InvoiceJobStatus.FAILED;
+    }
+
+    // Tất cả PDF đã xong của job trong 1 file ZIP
+    public void writeZip(Long jobId, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        zip.setLevel(Deflater.BEST_SPEED);
+        for (InvoiceJobItem item : invoiceJobItemRepository.findByJobIdAndStatusOrderByIdAsc(jobId, InvoiceJobItemStatus.DONE)) {
+            Resource pdf;
+            try {
+                pdf = getItemPdf(jobId, item.getId()).orElseThrow();
+            } catch (Exception e) {
+                throw new IOException("Could not load invoice " + item.getInvoiceNumber(), e);
+            }
+            zip.putNextEntry(new ZipEntry("Bao-Gia-" + item.getInvoiceNumber() + "-"
+                    + item.getStudentName().replaceAll("[\\\\/:*?\"<>|]", "_") + ".pdf"));
+            try (InputStream in = pdf.getInputStream()) {
+                in.transferTo(zip);
+            }
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+    }
+
+    // Chạy tiếp các job bị dừng giữa chừng do restart
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        List<InvoiceJob> unfinished = invoiceJobRepository.findByStatusInOrderByIdAsc(
+                List.of(InvoiceJobStatus.QUEUED, InvoiceJobStatus.RUNNING));
+        if (!unfinished.isEmpty()) {
+            log.info("Resuming {} unfinished invoice job(s)", unfinished.size());
+        }
+        unfinished.forEach(job -> workers.submit(() -> run(job.getId())));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Job đang chạy giữ trạng thái RUNNING và sẽ được chạy tiếp ở lần khởi động sau
+        workers.shutdownNow();
+    }
+
+    private void run(Long jobId) {
+        InvoiceJob job = invoiceJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() == InvoiceJobStatus.COMPLETED || job.getStatus() == InvoiceJobStatus.FAILED) {
+            return;
+        }
+
+        try {
+            job.setStatus(InvoiceJobStatus.RUNNING);
+            if (job.getStartedAt() == null) {
+                job.setStartedAt(LocalDateTime.now());
+            }
+            job = invoiceJobRepository.save(job);
+
+            for (InvoiceJobItem item : invoiceJobItemRepository.findByJobIdAndStatusOrderByIdAsc(jobId, InvoiceJobItemStatus.PENDING)) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return; // Đang tắt server
+                }
+                renderItem(job, item);
+            }
+
+            job.setStatus(InvoiceJobStatus.COMPLETED);
+        } catch (Exception e) {
+            log.error("Invoice job {} failed", jobId, e);
+            job.setStatus(InvoiceJobStatus.FAILED);
+            job.setError(e.getMessage());
+        }
+        job.setFinishedAt(LocalDateTime.now());
+        invoiceJobRepository.save(job);
+    }
+
+    private void renderItem(InvoiceJob job, InvoiceJobItem item) {
+        try {
+            InvoiceResponse invoice = invoiceService.generateInvoice(InvoiceRequest.builder()
+                    .studentId(item.getStudentId())
+                    .month(job.getMonth())
+                    .build());
+            invoicePdfCache.getOrRender(invoice);
+
+            item.setStatus(InvoiceJobItemStatus.DONE);
+            item.setStudentName(invoice.getStudentName());
+            item.setInvoiceNumber(invoice.getInvoiceNumber());
+        } catch (Exception e) {
+            log.warn("Invoice job {} failed for student {}", job.getId(), item.getStudentId(), e);
+            item.setStatus(InvoiceJobItemStatus.FAILED);
+            item.setError(e.getMessage());
+        }
+        item.setFinishedAt(LocalDateTime.now());
+        invoiceJobItemRepository.save(item);
+    }
+
+    private InvoiceJobResponse convertToResponse(InvoiceJob job, List<InvoiceJobItem> items) {
+        List<InvoiceJobResponse.Item> itemResponses = items.stream()
+                .map(item -> InvoiceJobResponse.Item.builder()
+                        .id(item.getId())
+                        .studentId(item.getStudentId())
+                        .studentName(item.getStudentName())
+                        .status(item.getStatus().name())
+                        .invoiceNumber(item.getInvoiceNumber())
+                        .error(item.getError())
+                        .build())
+                .collect(Collectors.toList());
+
+        return InvoiceJobResponse.builder()
+                .id(job.getId())
+                .month(job.getMonth())
+                .status(job.getStatus().name())
+                .totalItems(job.getTotalItems())
+                .completedItems((int) items.stream().filter(i -> i.getStatus() == InvoiceJobItemStatus.DONE).count())
+                .failedItems((int) items.stream().filter(i -> i.getStatus() == InvoiceJobItemStatus.FAILED).count())
+                .error(job.getError())
+                .createdAt(job.getCreatedAt().format(formatter))
+                .startedAt(job.getStartedAt() != null ? job.getStartedAt().format(formatter) : null)
+                .finishedAt(job.getFinishedAt() != null ? job.getFinishedAt().format(formatter) : null)
+                .items(itemResponses)
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.tutor_management.backend.service;
+
+import com.tutor_management.backend.repository.InvoiceSequenceRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// ============= Invoice Number Generator =============
+// Cấp số báo giá theo tháng kiểu hi/lo: mỗi lần xuống database giữ trước BLOCK_SIZE số,
+// sau đó cấp trong bộ nhớ bằng AtomicLong. Số bị bỏ qua khi restart là chấp nhận được, số trùng thì không.
+@Service
+public class InvoiceNumberGenerator {
+
+    static final long BLOCK_SIZE = 20;
+
+    private final InvoiceSequenceRepository invoiceSequenceRepository;
+    private final TransactionTemplate requiresNew;
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public InvoiceNumberGenerator(InvoiceSequenceRepository invoiceSequenceRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.invoiceSequenceRepository = invoiceSequenceRepository;
+        // Giữ khối trong transaction riêng để khoá dòng được nhả ngay, không chờ transaction của báo giá
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public String next(String month) {
+        String[] parts = month.split("-");
+        return String.format("INV-%s-%s-%03d", parts[0], parts[1], nextValue(month));
+    }
+
+    long nextValue(String month) {
+        while (true) {
+            Block block = blocks.get(month);
+            if (block != null) {
+                long value = block.next.getAndIncrement();
+                if (value < block.limit) {
+                    return value;
+                }
+            }
+            refill(month, block);
+        }
+    }
+
+    // Chỉ một thread xin khối mới; các thread khác chờ rồi dùng khối vừa được cấp
+    private synchronized void refill(String month, Block exhausted) {
+        if (blocks.get(month) != exhausted) {
+            return;
+        }
+        long limit = reserveBlock(month);
+        blocks.put(month, new Block(limit - BLOCK_SIZE, limit));
+    }
+
+    // Trả về giới hạn trên (không bao gồm) của khối vừa giữ
+    private long reserveBlock(String month) {
+        while (true) {
+            Long limit = requiresNew.execute(status -> {
+                if (invoiceSequenceRepository.reserveBlock(month, BLOCK_SIZE) == 0) {
+                    return null;
+                }
+                return invoiceSequenceRepository.findNextValue(month);
+            });
+            if (limit != null) {
+                return limit;
+            }
+
+            // Tháng chưa có dòng: tạo với khối đầu tiên [1, BLOCK_SIZE]
+            try {
+                requiresNew.executeWithoutResult(status -> invoiceSequenceRepository.insert(month, BLOCK_SIZE + 1));
+                return BLOCK_SIZE + 1;
+            } catch (DataIntegrityViolationException e) {
+                // Node khác vừa tạo dòng, quay lại giữ khối bằng UPDATE
+            }
+        }
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long limit;
+
+        private Block(long first, long limit) {
+            this.next = new AtomicLong(first);
+            this.limit = limit;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.tutor_management.backend.service;
+
+import com.tutor_management.backend.dto.response.BankInfo;
+import com.tutor_management.backend.dto.response.InvoiceItem;
+import com.tutor_management.backend.dto.response.InvoiceResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+// ============= Invoice PDF Cache =============
+// PDF của báo giá được lưu trên đĩa theo SHA-256 của toàn bộ snapshot (gồm số báo giá, ngày tạo, QR)
+// và PDFGeneratorService.TEMPLATE_VERSION.
+// Snapshot không đổi nên file không bao giờ cũ: tải lại chỉ đọc file, không render lại.
+@Service
+public class InvoicePdfCache {
+
+    private final Path cacheLocation;
+    private final PDFGeneratorService pdfGeneratorService;
+    private final int templateVersion;
+
+    @Autowired
+    public InvoicePdfCache(@Value("${file.upload-dir:uploads}") String uploadDir,
+                           PDFGeneratorService pdfGeneratorService) {
+        this(uploadDir, pdfGeneratorService, PDFGeneratorService.TEMPLATE_VERSION);
+    }
+
+    // Cho test đổi version mà không sửa hằng số
+    InvoicePdfCache(String uploadDir, PDFGeneratorService pdfGeneratorService, int templateVersion) {
+        this.cacheLocation = Paths.get(uploadDir, "invoices").toAbsolutePath().normalize();
+        this.pdfGeneratorService = pdfGeneratorService;
+        this.templateVersion = templateVersion;
+
+        try {
+            Files.createDirectories(this.cacheLocation);
+        } catch (Exception ex) {
+            throw new RuntimeException("Could not create invoice cache directory!", ex);
+        }
+    }
+
+    public Resource getOrRender(InvoiceResponse invoice) throws Exception {
+        Path file = cacheLocation.resolve(hash(invoice) + ".pdf");
+        if (!Files.exists(file)) {
+            render(invoice, file, OutputStream.nullOutputStream());
+        }
+        return new FileSystemResource(file);
+    }
+
+    // Ghi PDF ra out: có cache thì copy file, chưa có thì render một lần vào cả out lẫn file cache
+    public void writeTo(InvoiceResponse invoice, OutputStream out) throws Exception {
+        Path file = cacheLocation.resolve(hash(invoice) + ".pdf");
+        if (Files.exists(file)) {
+            Files.copy(file, out);
+        } else {
+            render(invoice, file, out);
+        }
+    }
+
+    private void render(InvoiceResponse invoice, Path file, OutputStream out) throws Exception {
+        // Ghi ra file tạm rồi đổi tên để request khác không đọc phải file ghi dở
+        Path temp = Files.createTempFile(cacheLocation, "render-", ".tmp");
+        try {
+            try (OutputStream fileOut = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                pdfGeneratorService.writeInvoicePDF(invoice, new TeeOutputStream(fileOut, out));
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private String hash(InvoiceResponse invoice) throws Exception {
+        StringBuilder content = new StringBuilder()
+                .append(templateVersion).append('\n')
+                .append(invoice.getInvoiceNumber()).append('\n')
+                .append(invoice.getStudentName()).append('\n')
+                .append(invoice.getMonth()).append('\n')
+                .append(invoice.getTotalSessions()).append('|')
+                .append(invoice.getTotalHours()).append('|')
+                .append(invoice.getTotalAmount()).append('\n')
+                .append(invoice.getQrCodeUrl()).append('\n')
+                .append(invoice.getQrPayload()).append('\n')
+                .append(invoice.getCreatedDate()).append('\n');
+        BankInfo bankInfo = invoice.getBankInfo();
+        if (bankInfo != null) {
+            content.append(bankInfo.getBankName()).append('|')
+                    .append(bankInfo.getAccountNumber()).append('|')
+                    .append(bankInfo.getAccountName()).append('|')
+                    .append(bankInfo.getSwiftCode()).append('\n');
+        }
+        for (InvoiceItem item : invoice.getItems()) {
+            content.append(item.getDate()).append('|')
+                    .append(item.getDescription()).append('|')
+                    .append(item.getSessions()).append('|')
+                    .append(item.getHours()).append('|')
+                    .append(item.getPricePerHour()).append('|')
+                    .append(item.getAmount()).append('\n');
+        }
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return HexFormat.of().formatHex(digest.digest(content.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // Ghi đồng thời ra file cache và response
+    private static final class TeeOutputStream extends OutputStream {
+        private final OutputStream first;
+        private final OutputStream second;
+
+        private TeeOutputStream(OutputStream first, OutputStream second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            first.write(b);
+            second.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            first.write(b, off, len);
+            second.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            first.flush();
+            second.flush();
+        }
+    }
+}
@@ -4,37 +4,63 @@ import com.tutor_management.backend.dto.request.InvoiceRequest;
 import com.tutor_management.backend.dto.response.BankInfo;
 import com.tutor_management.backend.dto.response.InvoiceItem;
 import com.tutor_management.backend.dto.response.InvoiceResponse;
+import com.tutor_management.backend.dto.response.StudentInvoiceSummary;
 import com.tutor_management.backend.entity.*;
 import com.tutor_management.backend.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class InvoiceService {
 
+    // Tài khoản nhận chuyển khoản trên QR (VietQR)
+    private static final String QR_BANK_CODE = "970436"; // Vietcombank
+    private static final String QR_ACCOUNT_NUMBER = "1041819355";
+
     private final SessionRecordRepository sessionRecordRepository;
     private final StudentRepository studentRepository;
+    private final InvoiceNumberGenerator invoiceNumberGenerator;
+    private final InvoiceSnapshotRepository invoiceSnapshotRepository;
 
     public InvoiceResponse generateInvoice(InvoiceRequest request) {
         // Kiểm tra nếu là nhiều học sinh (nhưng không phải tất cả)
         if (Boolean.TRUE.equals(request.getMultipleStudents()) &&
                 request.getSelectedStudentIds() != null &&
                 !request.getSelectedStudentIds().isEmpty()) {
-            return generateInvoiceForMultipleStudents(request);
+            String key = "MULTI:" + request.getMonth() + ":" + sortedIds(request.getSelectedStudentIds());
+            return snapshot(key, request.getMonth(), "-MULTI", generateInvoiceForMultipleStudents(request));
         }
 
         // KIỂM TRA: Nếu allStudents = true → Báo giá tổng tháng
         if (Boolean.TRUE.equals(request.getAllStudents())) {
-            return generateMonthlyInvoiceForAll(request.getMonth());
+            String key = "ALL:" + request.getMonth();
+            return snapshot(key, request.getMonth(), "-ALL", generateMonthlyInvoiceForAll(request.getMonth()));
         }
 
-        // Logic cũ: Báo giá cho 1 học sinh (GIỮ NGUYÊN)
+        String key = "STUDENT:" + request.getStudentId() + ":" + request.getMonth() + ":"
+                + (request.getSessionRecordIds() != null ? sortedIds(request.getSessionRecordIds()) : "");
+        return snapshot(key, request.getMonth(), "", generateInvoiceForStudent(request));
+    }
+
+    // Báo giá đã chốt theo số, dùng để tải lại PDF (vd. kết quả của job chạy nền)
+    public InvoiceResponse getInvoiceByNumber(String invoiceNumber) {
+        return invoiceSnapshotRepository.findByInvoiceNumber(invoiceNumber)
+                .map(this::toResponse)
+                .orElseThrow(() -> new RuntimeException("Invoice not found"));
+    }
+
+    // Logic cũ: Báo giá cho 1 học sinh (GIỮ NGUYÊN)
+    private InvoiceResponse generateInvoiceForStudent(InvoiceRequest request) {
         Student student = studentRepository.findById(request.getStudentId())
                 .orElseThrow(() -> new RuntimeException("Student not found"));
 
@@ -43,10 +69,8 @@ public class InvoiceService {
             records = sessionRecordRepository.findAllById(request.getSessionRecordIds());
         } else {
             // Get all unpaid sessions for the month
-            records = sessionRecordRepository.findByStudentIdOrderByCreatedAtDesc(request.getStudentId())
-                    .stream()
-                    .filter(r -> r.getMonth().equals(request.getMonth()) && !r.getPaid())
-                    .collect(Collectors.toList());
+            records = sessionRecordRepository.findByStudentIdAndMonthAndPaidFalseOrderBySessionDateAsc(
+                    request.getStudentId(), request.getMonth());
         }
 
         if (records.isEmpty()) {
@@ -71,76 +95,28 @@ public class InvoiceService {
                         .build())
                 .collect(Collectors.toList());
 
-        // Generate invoice number
-        String invoiceNumber = generateInvoiceNumber(request.getMonth());
-
-        // Generate QR code content
-        String qrContent = generateQRContent(totalAmount, invoiceNumber);
-
+        // Số báo giá và QR được gán khi chốt snapshot
         return InvoiceResponse.builder()
-                .invoiceNumber(invoiceNumber)
                 .studentName(student.getName())
-                .month(formatMonth(request.getMonth()))
                 .totalSessions(totalSessions)
                 .totalHours(totalHours)
                 .totalAmount(totalAmount)
                 .items(items)
-                .bankInfo(BankInfo.getDefault())
-                .qrCodeUrl(qrContent)
-                .createdDate(LocalDate.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")))
                 .build();
     }
 
     private InvoiceResponse generateInvoiceForMultipleStudents(InvoiceRequest request) {
-        // Lấy tất cả session records của các học sinh được chọn trong tháng
-        List<SessionRecord> allRecords = sessionRecordRepository.findAll()
-                .stream()
-                .filter(r -> r.getMonth().equals(request.getMonth()))
-                .filter(r -> request.getSelectedStudentIds().contains(r.getStudent().getId()))
-                .collect(Collectors.toList());
+        // Tổng hợp theo học sinh ngay trong database, chỉ tháng và các học sinh được chọn
+        List<StudentInvoiceSummary> summaries = sessionRecordRepository.summarizeInvoiceByMonthAndStudentIds(
+                request.getMonth(), request.getSelectedStudentIds());
 
-        if (allRecords.isEmpty()) {
+        if (summaries.isEmpty()) {
             throw new RuntimeException("No sessions found for selected students");
         }
 
-        // Tính tổng
-        int totalSessions = allRecords.stream().mapToInt(SessionRecord::getSessions).sum();
-        int totalHours = allRecords.stream().mapToInt(SessionRecord::getHours).sum();
-        long totalAmount = allRecords.stream().mapToLong(SessionRecord::getTotalAmount).sum();
-
-        // Nhóm theo học sinh
-        Map<Student, List<SessionRecord>> groupedByStudent = allRecords.stream()
-                .collect(Collectors.groupingBy(SessionRecord::getStudent));
-
-        // Tạo items - mỗi học sinh một dòng
-        List<InvoiceItem> items = groupedByStudent.entrySet().stream()
-                .map(entry -> {
-                    Student student = entry.getKey();
-                    List<SessionRecord> studentRecords = entry.getValue();
-
-                    int studentSessions = studentRecords.stream()
-                            .mapToInt(SessionRecord::getSessions).sum();
-                    int studentHours = studentRecords.stream()
-                            .mapToInt(SessionRecord::getHours).sum();
-                    long studentAmount = studentRecords.stream()
-                            .mapToLong(SessionRecord::getTotalAmount).sum();
-
-                    return InvoiceItem.builder()
-                            .date(formatMonth(request.getMonth()))
-                            .description(student.getName() + " - Học phí tháng")
-                            .sessions(studentSessions)
-                            .hours(studentHours)
-                            .pricePerHour(studentRecords.get(0).getPricePerHour())
-                            .amount(studentAmount)
-                            .build();
-                })
-                .sorted((a, b) -> a.getDescription().compareTo(b.getDescription()))
-                .collect(Collectors.toList());
-
-        // Tạo tên học sinh cho invoice (liệt kê các học sinh)
-        List<String> studentNames = groupedByStudent.keySet().stream()
-                .map(Student::getName)
-                .sorted()
+        // Tạo tên học sinh cho invoice (liệt kê các học sinh, đã sắp xếp theo tên)
+        List<String> studentNames = summaries.stream()
+                .map(StudentInvoiceSummary::getStudentName)
                 .collect(Collectors.toList());
 
         String studentNameForInvoice;
@@ -150,96 +126,151 @@ public class InvoiceService {
             studentNameForInvoice = studentNames.get(0) + " và " + (studentNames.size() - 1) + " học sinh khác";
         }
 
-        // Generate invoice number
-        String invoiceNumber = generateInvoiceNumber(request.getMonth()) + "-MULTI";
-
-        // Generate QR code
-        String qrContent = generateQRContent(totalAmount, invoiceNumber);
-
-        return InvoiceResponse.builder()
-                .invoiceNumber(invoiceNumber)
-                .studentName(studentNameForInvoice)
-                .month(formatMonth(request.getMonth()))
-                .totalSessions(totalSessions)
-                .totalHours(totalHours)
-                .totalAmount(totalAmount)
-                .items(items)
-                .bankInfo(BankInfo.getDefault())
-                .qrCodeUrl(qrContent)
-                .createdDate(LocalDate.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")))
-                .build();
+        return buildSummaryInvoice(summaries, request.getMonth(), studentNameForInvoice);
     }
 
     // METHOD MỚI: Tạo báo giá tổng cho tất cả học sinh trong tháng
     private InvoiceResponse generateMonthlyInvoiceForAll(String month) {
-        // Lấy TẤT CẢ records của tháng đó
-        List<SessionRecord> allRecords = sessionRecordRepository.findAll()
-                .stream()
-                .filter(r -> r.getMonth().equals(month))
-                .collect(Collectors.toList());
+        // Chỉ đọc dữ liệu của tháng đó, đã nhóm theo học sinh
+        List<StudentInvoiceSummary> summaries = sessionRecordRepository.summarizeInvoiceByMonth(month);
 
-        if (allRecords.isEmpty()) {
+        if (summaries.isEmpty()) {
             throw new RuntimeException("No sessions found for this month");
         }
 
-        // Tính tổng
-        int totalSessions = allRecords.stream().mapToInt(SessionRecord::getSessions).sum();
-        int totalHours = allRecords.stream().mapToInt(SessionRecord::getHours).sum();
-        long totalAmount = allRecords.stream().mapToLong(SessionRecord::getTotalAmount).sum();
-
-        // Nhóm theo StudentId để tạo items - ĐÚNG: dùng record.getStudent().getId()
-        Map<Long, List<SessionRecord>> groupedByStudent = allRecords.stream()
-                .collect(Collectors.groupingBy(record -> record.getStudent().getId()));
-
-        // Tạo items - MỖI HỌC SINH 1 DÒNG
-        List<InvoiceItem> items = groupedByStudent.entrySet().stream()
-                .map(entry -> {
-                    List<SessionRecord> studentRecords = entry.getValue();
-                    SessionRecord firstRecord = studentRecords.get(0);
-
-                    int studentSessions = studentRecords.stream()
-                            .mapToInt(SessionRecord::getSessions).sum();
-                    int studentHours = studentRecords.stream()
-                            .mapToInt(SessionRecord::getHours).sum();
-                    long studentAmount = studentRecords.stream()
-                            .mapToLong(SessionRecord::getTotalAmount).sum();
-
-                    return InvoiceItem.builder()
-                            .date(formatMonth(month))
-                            .description(firstRecord.getStudent().getName() + " - Học phí tháng")
-                            .sessions(studentSessions)
-                            .hours(studentHours)
-                            .pricePerHour(firstRecord.getPricePerHour())
-                            .amount(studentAmount)
-                            .build();
-                })
+        return buildSummaryInvoice(summaries, month, "TẤT CẢ HỌC SINH");
+    }
+
+    // Báo giá tổng: MỖI HỌC SINH 1 DÒNG
+    private InvoiceResponse buildSummaryInvoice(List<StudentInvoiceSummary> summaries, String month,
+                                                String studentName) {
+        List<InvoiceItem> items = summaries.stream()
+                .map(summary -> InvoiceItem.builder()
+                        .date(formatMonth(month))
+                        .description(summary.getStudentName() + " - Học phí tháng")
+                        .sessions(summary.getSessions().intValue())
+                        .hours(summary.getHours().intValue())
+                        .pricePerHour(summary.getPricePerHour())
+                        .amount(summary.getAmount())
+                        .build())
                 .sorted((a, b) -> a.getDescription().compareTo(b.getDescription())) // Sắp xếp theo tên
                 .collect(Collectors.toList());
 
-        // Generate invoice number
-        String invoiceNumber = generateInvoiceNumber(month) + "-ALL";
-
-        // Generate QR code
-        String qrContent = generateQRContent(totalAmount, invoiceNumber);
+        // Tính tổng
+        int totalSessions = items.stream().mapToInt(InvoiceItem::getSessions).sum();
+        int totalHours = items.stream().mapToInt(InvoiceItem::getHours).sum();
+        long totalAmount = items.stream().mapToLong(InvoiceItem::getAmount).sum();
 
         return InvoiceResponse.builder()
-                .invoiceNumber(invoiceNumber)
-                .studentName("TẤT CẢ HỌC SINH")
-                .month(formatMonth(month))
+                .studentName(studentName)
                 .totalSessions(totalSessions)
                 .totalHours(totalHours)
                 .totalAmount(totalAmount)
                 .items(items)
+                .build();
+    }
+
+    // Chốt báo giá: nếu nội dung y hệt lần trước thì trả lại snapshot cũ (cùng số, cùng PDF trong cache),
+    // chỉ khi session thay đổi mới cấp số mới và lưu snapshot mới
+    private InvoiceResponse snapshot(String requestKey, String month, String numberSuffix, InvoiceResponse draft) {
+        String contentHash = contentHash(requestKey, numberSuffix, draft);
+        InvoiceSnapshot existing = invoiceSnapshotRepository.findByContentHash(contentHash).orElse(null);
+        if (existing != null) {
+            return toResponse(existing);
+        }
+
+        String invoiceNumber = generateInvoiceNumber(month) + numberSuffix;
+        InvoiceSnapshot snapshot = InvoiceSnapshot.builder()
+                .contentHash(contentHash)
+                .invoiceNumber(invoiceNumber)
+                .month(month)
+                .studentName(draft.getStudentName())
+                .totalSessions(draft.getTotalSessions())
+                .totalHours(draft.getTotalHours())
+                .totalAmount(draft.getTotalAmount())
+                .qrCodeUrl(generateQRContent(draft.getTotalAmount(), invoiceNumber))
+                .items(draft.getItems().stream()
+                        .map(item -> InvoiceSnapshotItem.builder()
+                                .date(item.getDate())
+                                .description(item.getDescription())
+                                .sessions(item.getSessions())
+                                .hours(item.getHours())
+                                .pricePerHour(item.getPricePerHour())
+                                .amount(item.getAmount())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+
+        try {
+            return toResponse(invoiceSnapshotRepository.saveAndFlush(snapshot));
+        } catch (DataIntegrityViolationException e) {
+            // Request song song đã chốt cùng nội dung trước, dùng snapshot đó (số vừa cấp bị bỏ qua)
+            return invoiceSnapshotRepository.findByContentHash(contentHash)
+                    .map(this::toResponse)
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private InvoiceResponse toResponse(InvoiceSnapshot snapshot) {
+        return InvoiceResponse.builder()
+                .invoiceNumber(snapshot.getInvoiceNumber())
+                .studentName(snapshot.getStudentName())
+                .month(formatMonth(snapshot.getMonth()))
+                .totalSessions(snapshot.getTotalSessions())
+                .totalHours(snapshot.getTotalHours())
+                .totalAmount(snapshot.getTotalAmount())
+                .items(snapshot.getItems().stream()
+                        .map(item -> InvoiceItem.builder()
+                                .date(item.getDate())
+                                .description(item.getDescription())
+                                .sessions(item.getSessions())
+                                .hours(item.getHours())
+                                .pricePerHour(item.getPricePerHour())
+                                .amount(item.getAmount())
+                                .build())
+                        .collect(Collectors.toList()))
                 .bankInfo(BankInfo.getDefault())
-                .qrCodeUrl(qrContent)
-                .createdDate(LocalDate.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")))
+                .qrCodeUrl(snapshot.getQrCodeUrl())
+                .qrPayload(generateQRPayload(snapshot.getTotalAmount(), snapshot.getInvoiceNumber()))
+                .createdDate(snapshot.getCreatedAt().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")))
                 .build();
     }
 
+    // SHA-256 của yêu cầu + nội dung báo giá, không gồm số báo giá và ngày tạo
+    private String contentHash(String requestKey, String numberSuffix, InvoiceResponse draft) {
+        StringBuilder content = new StringBuilder()
+                .append(requestKey).append('\n')
+                .append(numberSuffix).append('\n')
+                .append(draft.getStudentName()).append('\n')
+                .append(draft.getTotalSessions()).append('|')
+                .append(draft.getTotalHours()).append('|')
+                .append(draft.getTotalAmount()).append('\n');
+        for (InvoiceItem item : draft.getItems()) {
+            content.append(item.getDate()).append('|')
+                    .append(item.getDescription()).append('|')
+                    .append(item.getSessions()).append('|')
+                    .append(item.getHours()).append('|')
+                    .append(item.getPricePerHour()).append('|')
+                    .append(item.getAmount()).append('\n');
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String sortedIds(List<Long> ids) {
+        return ids.stream()
+                .distinct()
+                .sorted()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+    }
+
     private String generateInvoiceNumber(String month) {
-        String[] parts = month.split("-");
-        long count = sessionRecordRepository.count(); // Simple counter
-        return String.format("INV-%s-%s-%03d", parts[0], parts[1], count + 1);
+        return invoiceNumberGenerator.next(month);
     }
 
     private String formatDate(LocalDate date) {
@@ -253,14 +284,17 @@ public class InvoiceService {
 
     private String generateQRContent(long amount, String invoiceNumber) {
         // VietQR format for Vietcombank
-        String bankCode = "970436"; // Vietcombank
-        String accountNumber = "1041819355";
         String template = "compact2";
         String description = invoiceNumber.replace("-", "");
 
         return String.format(
                 "https://img.vietqr.io/image/%s-%s-%s.png?amount=%d&addInfo=%s",
-                bankCode, accountNumber, template, amount, description
+                QR_BANK_CODE, QR_ACCOUNT_NUMBER, template, amount, description
         );
     }
+
+    // Nội dung QR (chuẩn EMVCo) để PDF tự vẽ, cùng tài khoản/số tiền/nội dung với qrCodeUrl
+    private String generateQRPayload(long amount, String invoiceNumber) {
+        return VietQrPayload.build(QR_BANK_CODE, QR_ACCOUNT_NUMBER, amount, invoiceNumber.replace("-", ""));
+    }
 }
\ No newline at end of file
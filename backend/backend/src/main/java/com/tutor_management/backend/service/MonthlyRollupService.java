@@ -0,0 +1,146 @@
+package com.tutor_management.backend.service;
+
+import com.tutor_management.backend.dto.response.RollupRebuildReport;
+import com.tutor_management.backend.entity.MonthlyRollup;
+import com.tutor_management.backend.event.SessionRecordsChangedEvent;
+import com.tutor_management.backend.repository.MonthlyRollupRepository;
+import com.tutor_management.backend.repository.SessionRecordRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// ============= Monthly Rollup Service =============
+// Duy trì bảng monthly_rollup. Các hàm ghi phải được gọi trong cùng transaction với thay đổi session_records.
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class MonthlyRollupService {
+
+    private final MonthlyRollupRepository monthlyRollupRepository;
+    private final SessionRecordRepository sessionRecordRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public void applyDelta(String month, long paidDelta, long unpaidDelta,
+                           long sessionsDelta, long hoursDelta, long activeStudentsDelta) {
+        monthlyRollupRepository.upsertDelta(
+                month, paidDelta, unpaidDelta, sessionsDelta, hoursDelta, activeStudentsDelta, LocalDateTime.now());
+        if (sessionsDelta < 0) {
+            monthlyRollupRepository.deleteIfEmpty(month);
+        }
+    }
+
+    // Khoá dòng rollup của tháng (tạo dòng rỗng nếu chưa có) để các transaction ghi cùng tháng chạy tuần tự.
+    // Gọi trước khi đọc session_records của tháng; transaction gọi phải dùng READ_COMMITTED để đọc được dữ liệu mới nhất sau khi có khoá.
+    public void lockMonth(String month) {
+        applyDelta(month, 0L, 0L, 0L, 0L, 0L);
+    }
+
+    // Tính lại 1 tháng từ session_records (dùng cho các thao tác hàng loạt)
+    public void recomputeMonth(String month) {
+        lockMonth(month);
+        Optional<MonthlyRollup> fresh = sessionRecordRepository.aggregateMonthlyRollup(month);
+        if (fresh.isPresent()) {
+            monthlyRollupRepository.save(fresh.get());
+        } else {
+            monthlyRollupRepository.deleteById(month);
+        }
+    }
+
+    // Khoá theo thứ tự tháng tăng dần để tránh deadlock giữa các thao tác nhiều tháng
+    public void recomputeMonths(Collection<String> months) {
+        new TreeSet<>(months).forEach(this::recomputeMonth);
+    }
+
+    // Tính lại toàn bộ bảng từ đầu và báo cáo các tháng bị lệch.
+    // Khoá từng tháng (tăng dần, như recomputeMonths) trước khi đọc: delta commit xen giữa lúc đọc và lúc ghi
+    // không thể bị ghi đè bằng số cũ. Tháng mới xuất hiện sau khi đã khoá thì để delta tự duy trì.
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public RollupRebuildReport rebuild() {
+        Set<String> storedMonths = Set.copyOf(monthlyRollupRepository.findAllMonths());
+        TreeSet<String> months = new TreeSet<>(sessionRecordRepository.findDistinctMonths());
+        months.addAll(storedMonths);
+        months.forEach(this::lockMonth);
+
+        Map<String, MonthlyRollup> actual = sessionRecordRepository.aggregateMonthlyRollups()
+                .stream()
+                .filter(rollup -> months.contains(rollup.getMonth()))
+                .collect(Collectors.toMap(MonthlyRollup::getMonth, Function.identity(), (a, b) -> a, LinkedHashMap::new));
+        // Dòng rỗng do lockMonth vừa tạo coi như chưa có
+        Map<String, MonthlyRollup> stored = monthlyRollupRepository.findAllById(months)
+                .stream()
+                .filter(rollup -> storedMonths.contains(rollup.getMonth()) || !isEmpty(rollup))
+                .collect(Collectors.toMap(MonthlyRollup::getMonth, Function.identity()));
+
+        List<RollupRebuildReport.Drift> drifts = new ArrayList<>();
+        for (String month : months.descendingSet()) {
+            MonthlyRollup a = actual.get(month);
+            MonthlyRollup s = stored.get(month);
+            compare(drifts, month, "totalPaid", s, a, MonthlyRollup::getTotalPaid);
+            compare(drifts, month, "totalUnpaid", s, a, MonthlyRollup::getTotalUnpaid);
+            compare(drifts, month, "totalSessions", s, a, MonthlyRollup::getTotalSessions);
+            compare(drifts, month, "totalHours", s, a, MonthlyRollup::getTotalHours);
+            compare(drifts, month, "activeStudents", s, a, MonthlyRollup::getActiveStudents);
+        }
+
+        months.stream()
+                .filter(month -> !actual.containsKey(month))
+                .forEach(monthlyRollupRepository::deleteById);
+        monthlyRollupRepository.saveAll(actual.values());
+        if (!drifts.isEmpty()) {
+            eventPublisher.publishEvent(new SessionRecordsChangedEvent(Set.of(), Set.copyOf(months)));
+        }
+
+        int monthsDrifted = (int) drifts.stream().map(RollupRebuildReport.Drift::getMonth).distinct().count();
+
+        return RollupRebuildReport.builder()
+                .monthsChecked(months.size())
+                .monthsDrifted(monthsDrifted)
+                .drifts(drifts)
+                .build();
+    }
+
+    // Lần đầu chạy sau khi thêm bảng monthly_rollup: dựng từ dữ liệu có sẵn
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public void initializeIfEmpty() {
+        if (monthlyRollupRepository.count() == 0 && sessionRecordRepository.count() > 0) {
+            rebuild();
+        }
+    }
+
+    private boolean isEmpty(MonthlyRollup rollup) {
+        return rollup.getTotalSessions() == 0 && rollup.getTotalPaid() == 0 && rollup.getTotalUnpaid() == 0
+                && rollup.getTotalHours() == 0 && rollup.getActiveStudents() == 0;
+    }
+
+    private void compare(List<RollupRebuildReport.Drift> drifts, String month, String field,
+                         MonthlyRollup stored, MonthlyRollup actual, Function<MonthlyRollup, Long> getter) {
+        Long storedValue = stored != null ? getter.apply(stored) : null;
+        Long actualValue = actual != null ? getter.apply(actual) : null;
+        if (!Objects.equals(storedValue, actualValue)) {
+            drifts.add(RollupRebuildReport.Drift.builder()
+                    .month(month)
+                    .field(field)
+                    .stored(storedValue)
+                    .actual(actualValue)
+                    .build());
+        }
+    }
+}
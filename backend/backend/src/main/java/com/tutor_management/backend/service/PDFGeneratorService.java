@@ -1,134 +1,257 @@
 package com.tutor_management.backend.service;
 
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.WriterProperties;
 import com.itextpdf.kernel.pdf.canvas.draw.SolidLine;
+import com.itextpdf.layout.Canvas;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.element.*;
 import com.itextpdf.layout.properties.*;
 import com.itextpdf.kernel.colors.*;
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
 import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
 import com.itextpdf.kernel.font.PdfFont;
 import com.itextpdf.kernel.font.PdfFontFactory;
-import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.kernel.font.PdfFontFactory.EmbeddingStrategy;
+import com.itextpdf.barcodes.BarcodeQRCode;
+import com.itextpdf.barcodes.qrcode.EncodeHintType;
+import com.itextpdf.barcodes.qrcode.ErrorCorrectionLevel;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
 import com.tutor_management.backend.dto.response.InvoiceItem;
 import com.tutor_management.backend.dto.response.InvoiceResponse;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
-import org.springframework.core.io.Resource;
 
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
-import java.net.URL;
+import java.io.OutputStream;
 import java.text.NumberFormat;
 import java.util.Locale;
+import java.util.Map;
 
+@Slf4j
 @Service
 public class PDFGeneratorService {
 
-    private PdfFont vietnameseFont;
-    private PdfFont vietnameseFontBold;
+    // Tăng khi bố cục PDF thay đổi để InvoicePdfCache không trả lại file render bằng bản cũ
+    public static final int TEMPLATE_VERSION = 3;
+
+    private static final int TABLE_FLUSH_ROWS = 50;
+
+    private static final float MARGIN = 50;
+    private static final float CONTENT_WIDTH = PageSize.A4.getWidth() - 2 * MARGIN;
+    private static final float STATIC_BLOCK_MAX_HEIGHT = 300;
+
+    private static final String TITLE = "BÁO GIÁ HỌC PHÍ";
+    private static final String SUBTITLE = "ENGLISH TUTORING";
+    private static final String FOOTER_NOTE = "Lưu ý: Vui lòng chuyển khoản đúng nội dung để xác nhận thanh toán nhanh chóng.";
+    private static final String FOOTER_THANKS = "Cảm ơn quý phụ huynh đã tin tưởng!";
+
+    private static final Color SUBTITLE_COLOR = new DeviceRgb(100, 100, 100);
+    private static final Color TABLE_HEADER_COLOR = new DeviceRgb(59, 130, 246);
+    private static final Color TOTAL_ROW_COLOR = new DeviceRgb(243, 244, 246);
+    private static final Color NOTE_COLOR = new DeviceRgb(107, 114, 128);
+    private static final Color LINE_COLOR = new DeviceRgb(200, 200, 200);
+
+    // Font program (đã parse) dùng chung, chỉ đọc sau khi khởi tạo. PdfFont thì gắn với 1 PdfDocument
+    // nên mỗi lần render tạo PdfFont riêng từ program, không parse lại file .ttf.
+    private final FontProgram regularFontProgram;
+    private final FontProgram boldFontProgram;
+
+    // Tiêu đề và lời cảm ơn không đổi giữa các báo giá: layout sẵn thành form XObject
+    private final StaticBlock titleBlock;
+    private final StaticBlock footerBlock;
+
+    public PDFGeneratorService() {
+        FontProgram regular;
+        FontProgram bold;
+        try {
+            log.debug("Loading Vietnamese fonts from resources");
+
+            // Load font DejaVu Sans (hỗ trợ Unicode đầy đủ)
+            ClassPathResource regularFont = new ClassPathResource("fonts/DejaVuSans.ttf");
+            ClassPathResource boldFont = new ClassPathResource("fonts/DejaVuSans-Bold.ttf");
+
+            if (regularFont.exists() && boldFont.exists()) {
+                // cached = false: giữ program ở đây, không cần FontCache toàn cục của iText
+                try (InputStream regularIn = regularFont.getInputStream();
+                     InputStream boldIn = boldFont.getInputStream()) {
+                    regular = FontProgramFactory.createFont(regularIn.readAllBytes(), false);
+                    bold = FontProgramFactory.createFont(boldIn.readAllBytes(), false);
+                }
+                log.info("Loaded DejaVu Sans fonts");
+            } else {
+                // Nếu không có font file, dùng StandardFonts
+                log.warn("Font files not found, using standard fonts");
+                regular = FontProgramFactory.createFont(StandardFonts.TIMES_ROMAN);
+                bold = FontProgramFactory.createFont(StandardFonts.TIMES_BOLD);
+            }
+        } catch (Exception e) {
+            log.error("Error loading fonts", e);
+
+            // Fallback an toàn
+            try {
+                regular = FontProgramFactory.createFont();
+                bold = FontProgramFactory.createFont();
+                log.warn("Using default factory font");
+            } catch (Exception ex) {
+                throw new RuntimeException("Cannot create any font", ex);
+            }
+        }
+        this.regularFontProgram = regular;
+        this.boldFontProgram = bold;
+
+        // Layout các khối tĩnh 1 lần trên document nháp, chỉ giữ lại content stream
+        try (PdfDocument templateDocument = new PdfDocument(new PdfWriter(OutputStream.nullOutputStream()))) {
+            templateDocument.addNewPage();
+            Fonts fonts = createFonts();
+            this.titleBlock = layoutStaticBlock(templateDocument, fonts, SUBTITLE, TITLE,
+                    new Paragraph(TITLE)
+                            .setFont(fonts.bold())
+                            .setFontSize(28)
+                            .setTextAlignment(TextAlignment.CENTER)
+                            .setMarginTop(0)
+                            .setMarginBottom(5),
+                    new Paragraph(SUBTITLE)
+                            .setFont(fonts.regular())
+                            .setFontSize(16)
+                            .setTextAlignment(TextAlignment.CENTER)
+                            .setMarginBottom(30)
+                            .setFontColor(SUBTITLE_COLOR));
+            this.footerBlock = layoutStaticBlock(templateDocument, fonts, FOOTER_NOTE, FOOTER_THANKS,
+                    new Paragraph(FOOTER_NOTE)
+                            .setFont(fonts.regular())
+                            .setFontSize(9)
+                            .setFontColor(NOTE_COLOR)
+                            .setTextAlignment(TextAlignment.CENTER)
+                            .setMarginTop(20),
+                    new Paragraph(FOOTER_THANKS)
+                            .setFont(fonts.bold())
+                            .setFontSize(11)
+                            .setTextAlignment(TextAlignment.CENTER)
+                            .setMarginTop(5)
+                            .setMarginBottom(0));
+        }
+    }
 
     public byte[] generateInvoicePDF(InvoiceResponse invoice) throws Exception {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PdfWriter writer = new PdfWriter(baos);
+        writeInvoicePDF(invoice, baos);
+        return baos.toByteArray();
+    }
+
+    // Ghi PDF thẳng ra stream: trang nào xong được flush ngay, không giữ cả file trong bộ nhớ.
+    // Không đóng out (người gọi sở hữu stream).
+    public void writeInvoicePDF(InvoiceResponse invoice, OutputStream out) throws Exception {
+        // Full compression: object stream + xref stream; font luôn được subset (chỉ nhúng glyph đã dùng)
+        PdfWriter writer = new PdfWriter(out, new WriterProperties().setFullCompressionMode(true));
+        writer.setCloseStream(false);
         PdfDocument pdf = new PdfDocument(writer);
         Document document = new Document(pdf);
 
-        // Load Vietnamese fonts - QUAN TRỌNG!
-        loadVietnameseFonts();
+        // Font riêng cho document này (thread-safe, có thể render song song)
+        Fonts fonts = createFonts();
 
         // Set margins và page size
-        document.setMargins(50, 50, 50, 50);
-        document.setFont(vietnameseFont); // Set font mặc định
+        document.setMargins(MARGIN, MARGIN, MARGIN, MARGIN);
+        document.setFont(fonts.regular()); // Set font mặc định
 
         // Header
-        addHeader(document, invoice);
+        addHeader(document, invoice, fonts);
 
         // Invoice Info
-        addInvoiceInfo(document, invoice);
+        addInvoiceInfo(document, invoice, fonts);
 
         // Divider
         addDivider(document);
 
         // Table
-        addItemsTable(document, invoice);
+        addItemsTable(document, invoice, fonts);
 
         // Divider
         addDivider(document);
 
         // Bank Info & QR
-        addBankInfo(document, invoice);
+        addBankInfo(document, invoice, fonts);
 
         // Divider
         addDivider(document);
 
         // Footer
-        addFooter(document);
+        addFooter(document, fonts);
 
         document.close();
-        return baos.toByteArray();
     }
 
-    private void loadVietnameseFonts() throws Exception {
-        try {
-            System.out.println("Loading Vietnamese fonts from resources...");
-
-            // Load font DejaVu Sans (hỗ trợ Unicode đầy đủ)
-            ClassPathResource regularFont = new ClassPathResource("fonts/DejaVuSans.ttf");
-            ClassPathResource boldFont = new ClassPathResource("fonts/DejaVuSans-Bold.ttf");
+    private Fonts createFonts() {
+        PdfFont regular = PdfFontFactory.createFont(regularFontProgram, PdfEncodings.IDENTITY_H, EmbeddingStrategy.PREFER_EMBEDDED);
+        PdfFont bold = PdfFontFactory.createFont(boldFontProgram, PdfEncodings.IDENTITY_H, EmbeddingStrategy.PREFER_EMBEDDED);
+        regular.setSubset(true);
+        bold.setSubset(true);
+        return new Fonts(regular, bold);
+    }
 
-            if (regularFont.exists() && boldFont.exists()) {
-                // Tạo font từ file
-                vietnameseFont = PdfFontFactory.createFont(
-                        regularFont.getInputStream().readAllBytes(),
-                        PdfEncodings.IDENTITY_H
-                );
-
-                vietnameseFontBold = PdfFontFactory.createFont(
-                        boldFont.getInputStream().readAllBytes(),
-                        PdfEncodings.IDENTITY_H
-                );
-
-                System.out.println("Successfully loaded DejaVu Sans fonts");
-            } else {
-                // Nếu không có font file, dùng StandardFonts
-                System.out.println("Font files not found, using standard fonts");
-                vietnameseFont = PdfFontFactory.createFont("Times-Roman", PdfEncodings.IDENTITY_H);
-                vietnameseFontBold = PdfFontFactory.createFont("Times-Bold", PdfEncodings.IDENTITY_H);
+    private record Fonts(PdfFont regular, PdfFont bold) {}
+
+    // Content stream đã layout của 1 khối tĩnh. Font dùng Identity-H nên mã glyph trong content
+    // giống nhau với mọi PdfFont tạo từ cùng FontProgram, chỉ cần gắn lại font của document mới.
+    private record StaticBlock(byte[] content, Rectangle bbox,
+                               PdfName regularFontName, String regularText,
+                               PdfName boldFontName, String boldText) {}
+
+    private StaticBlock layoutStaticBlock(PdfDocument templateDocument, Fonts fonts,
+                                          String regularText, String boldText, Paragraph... paragraphs) {
+        PdfFormXObject xObject = new PdfFormXObject(new Rectangle(CONTENT_WIDTH, STATIC_BLOCK_MAX_HEIGHT));
+        float height;
+        try (Canvas canvas = new Canvas(xObject, templateDocument)) {
+            for (Paragraph paragraph : paragraphs) {
+                canvas.add(paragraph);
             }
+            height = STATIC_BLOCK_MAX_HEIGHT - canvas.getRenderer().getCurrentArea().getBBox().getHeight();
+        }
 
-        } catch (Exception e) {
-            System.err.println("Error loading fonts: " + e.getMessage());
+        return new StaticBlock(
+                xObject.getPdfObject().getBytes(),
+                new Rectangle(0, STATIC_BLOCK_MAX_HEIGHT - height, CONTENT_WIDTH, height),
+                xObject.getResources().getResourceName(fonts.regular()), regularText,
+                xObject.getResources().getResourceName(fonts.bold()), boldText);
+    }
 
-            // Fallback an toàn
-            try {
-                vietnameseFont = PdfFontFactory.createFont();
-                vietnameseFontBold = PdfFontFactory.createFont();
-                System.out.println("Using default factory font");
-            } catch (Exception ex) {
-                throw new RuntimeException("Cannot create any font", ex);
-            }
+    // Chèn khối tĩnh vào document: tạo XObject từ content có sẵn, trỏ tên font sang font của document này
+    private void addStaticBlock(Document document, StaticBlock block, Fonts fonts) {
+        PdfDocument pdf = document.getPdfDocument();
+        PdfFormXObject xObject = new PdfFormXObject(block.bbox());
+        xObject.getPdfObject().setData(block.content());
+
+        PdfDictionary fontResources = new PdfDictionary();
+        bindStaticFont(pdf, fontResources, block.regularFontName(), fonts.regular(), block.regularText());
+        bindStaticFont(pdf, fontResources, block.boldFontName(), fonts.bold(), block.boldText());
+        xObject.getResources().getPdfObject().put(PdfName.Font, fontResources);
+
+        document.add(new Image(xObject).setWidth(CONTENT_WIDTH));
+    }
+
+    private void bindStaticFont(PdfDocument pdf, PdfDictionary fontResources, PdfName name, PdfFont font, String text) {
+        if (name == null) {
+            return;
         }
+        pdf.addFont(font);
+        // Đánh dấu glyph của khối tĩnh là đã dùng để có trong font subset và ToUnicode
+        font.convertToBytes(text);
+        fontResources.put(name, font.getPdfObject());
     }
 
-    private void addHeader(Document document, InvoiceResponse invoice) {
-        // Main Title
-        Paragraph title = new Paragraph("BÁO GIÁ HỌC PHÍ")
-                .setFont(vietnameseFontBold)
-                .setFontSize(28)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginBottom(5);
-        document.add(title);
-
-        // Subtitle
-        Paragraph subtitle = new Paragraph("ENGLISH TUTORING")
-                .setFont(vietnameseFont)
-                .setFontSize(16)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginBottom(30)
-                .setFontColor(new DeviceRgb(100, 100, 100));
-        document.add(subtitle);
+    private void addHeader(Document document, InvoiceResponse invoice, Fonts fonts) {
+        // Main Title + Subtitle (khối tĩnh)
+        addStaticBlock(document, titleBlock, fonts);
 
         // Invoice Info in two columns
         Table headerTable = new Table(2).useAllAvailableWidth();
@@ -143,12 +266,12 @@ public class PDFGeneratorService {
 
         // Right column - Invoice number and date
         Paragraph invoiceInfo = new Paragraph()
-                .setFont(vietnameseFont)
+                .setFont(fonts.regular())
                 .setTextAlignment(TextAlignment.RIGHT);
 
-        invoiceInfo.add(new Text("Số: ").setFont(vietnameseFontBold));
+        invoiceInfo.add(new Text("Số: ").setFont(fonts.bold()));
         invoiceInfo.add(invoice.getInvoiceNumber() + "\n");
-        invoiceInfo.add(new Text("Ngày: ").setFont(vietnameseFontBold));
+        invoiceInfo.add(new Text("Ngày: ").setFont(fonts.bold()));
         invoiceInfo.add(invoice.getCreatedDate());
 
         headerTable.addCell(new Cell()
@@ -163,16 +286,16 @@ public class PDFGeneratorService {
         addHorizontalLine(document);
     }
 
-    private void addInvoiceInfo(Document document, InvoiceResponse invoice) {
+    private void addInvoiceInfo(Document document, InvoiceResponse invoice, Fonts fonts) {
         Table infoTable = new Table(2).useAllAvailableWidth();
         infoTable.setMarginBottom(15);
 
         // Student info
         Paragraph studentInfo = new Paragraph()
-                .setFont(vietnameseFont)
-                .add(new Text("Học sinh: ").setFont(vietnameseFontBold))
+                .setFont(fonts.regular())
+                .add(new Text("Học sinh: ").setFont(fonts.bold()))
                 .add(invoice.getStudentName() + "\n")
-                .add(new Text("Thời gian: ").setFont(vietnameseFontBold))
+                .add(new Text("Thời gian: ").setFont(fonts.bold()))
                 .add(invoice.getMonth());
 
         infoTable.addCell(new Cell()
@@ -188,8 +311,10 @@ public class PDFGeneratorService {
         document.add(infoTable);
     }
 
-    private void addItemsTable(Document document, InvoiceResponse invoice) {
-        Table table = new Table(new float[]{2, 4, 1.5f, 1.5f, 2, 2.5f});
+    private void addItemsTable(Document document, InvoiceResponse invoice, Fonts fonts) {
+        // Large table: các dòng đã add được layout và flush theo từng đợt, báo giá tổng nhiều trang
+        // không phải giữ toàn bộ bảng trong bộ nhớ
+        Table table = new Table(new float[]{2, 4, 1.5f, 1.5f, 2, 2.5f}, true);
         table.useAllAvailableWidth();
         table.setMarginBottom(20);
 
@@ -198,80 +323,85 @@ public class PDFGeneratorService {
         for (String header : headers) {
             Cell headerCell = new Cell()
                     .add(new Paragraph(header)
-                            .setFont(vietnameseFontBold)
+                            .setFont(fonts.bold())
                             .setFontSize(10))
-                    .setBackgroundColor(new DeviceRgb(59, 130, 246))
+                    .setBackgroundColor(TABLE_HEADER_COLOR)
                     .setFontColor(ColorConstants.WHITE)
                     .setTextAlignment(TextAlignment.CENTER)
                     .setPadding(8);
             table.addHeaderCell(headerCell);
         }
+        document.add(table);
 
         // Data rows
+        int rows = 0;
         for (InvoiceItem item : invoice.getItems()) {
-            table.addCell(createTableCell(item.getDate()));
-            table.addCell(createTableCell(item.getDescription()));
-            table.addCell(createTableCellCenter(String.valueOf(item.getSessions())));
-            table.addCell(createTableCellCenter(String.valueOf(item.getHours())));
-            table.addCell(createTableCellRight(formatCurrency(item.getPricePerHour())));
-            table.addCell(createTableCellRight(formatCurrency(item.getAmount())));
+            table.addCell(createTableCell(item.getDate(), fonts));
+            table.addCell(createTableCell(item.getDescription(), fonts));
+            table.addCell(createTableCellCenter(String.valueOf(item.getSessions()), fonts));
+            table.addCell(createTableCellCenter(String.valueOf(item.getHours()), fonts));
+            table.addCell(createTableCellRight(formatCurrency(item.getPricePerHour()), fonts));
+            table.addCell(createTableCellRight(formatCurrency(item.getAmount()), fonts));
+            if (++rows % TABLE_FLUSH_ROWS == 0) {
+                table.flush();
+            }
         }
 
         // Total row
         Cell totalLabelCell = new Cell(1, 5)
                 .add(new Paragraph("TỔNG CỘNG")
-                        .setFont(vietnameseFontBold)
+                        .setFont(fonts.bold())
                         .setFontSize(11))
                 .setTextAlignment(TextAlignment.RIGHT)
-                .setBackgroundColor(new DeviceRgb(243, 244, 246))
+                .setBackgroundColor(TOTAL_ROW_COLOR)
                 .setPadding(10);
         table.addCell(totalLabelCell);
 
         Cell totalAmountCell = new Cell()
                 .add(new Paragraph(formatCurrency(invoice.getTotalAmount()))
-                        .setFont(vietnameseFontBold)
+                        .setFont(fonts.bold())
                         .setFontSize(11))
-                .setBackgroundColor(new DeviceRgb(243, 244, 246))
+                .setBackgroundColor(TOTAL_ROW_COLOR)
                 .setTextAlignment(TextAlignment.RIGHT)
                 .setPadding(10);
         table.addCell(totalAmountCell);
 
-        document.add(table);
+        table.complete();
     }
 
-    private Cell createTableCell(String text) {
+    private Cell createTableCell(String text, Fonts fonts) {
         return new Cell()
-                .add(new Paragraph(text).setFont(vietnameseFont).setFontSize(10))
+                .add(new Paragraph(text).setFont(fonts.regular()).setFontSize(10))
                 .setPadding(6)
                 .setTextAlignment(TextAlignment.LEFT);
     }
 
-    private Cell createTableCellCenter(String text) {
+    private Cell createTableCellCenter(String text, Fonts fonts) {
         return new Cell()
-                .add(new Paragraph(text).setFont(vietnameseFont).setFontSize(10))
+                .add(new Paragraph(text).setFont(fonts.regular()).setFontSize(10))
                 .setPadding(6)
                 .setTextAlignment(TextAlignment.CENTER);
     }
 
-    private Cell createTableCellRight(String text) {
+    private Cell createTableCellRight(String text, Fonts fonts) {
         return new Cell()
-                .add(new Paragraph(text).setFont(vietnameseFont).setFontSize(10))
+                .add(new Paragraph(text).setFont(fonts.regular()).setFontSize(10))
                 .setPadding(6)
                 .setTextAlignment(TextAlignment.RIGHT);
     }
 
-    private void addBankInfo(Document document, InvoiceResponse invoice) {
+    private void addBankInfo(Document document, InvoiceResponse invoice, Fonts fonts) {
         Table bankTable = new Table(2).useAllAvailableWidth();
         bankTable.setMarginBottom(20);
 
         // Bank info
         Paragraph bankTitle = new Paragraph("THÔNG TIN CHUYỂN KHOẢN")
-                .setFont(vietnameseFontBold)
+                .setFont(fonts.bold())
                 .setFontSize(12)
                 .setMarginBottom(8);
 
         Paragraph bankDetails = new Paragraph()
-                .setFont(vietnameseFont)
+                .setFont(fonts.regular())
                 .setFontSize(10)
                 .add("Ngân hàng: " + invoice.getBankInfo().getBankName() + "\n")
 //                .add("Số tài khoản: " + invoice.getBankInfo().getAccountNumber() + "\n")
@@ -293,12 +423,16 @@ public class PDFGeneratorService {
 
         try {
             Paragraph qrTitle = new Paragraph("QR THANH TOÁN")
-                    .setFont(vietnameseFontBold)
+                    .setFont(fonts.bold())
                     .setFontSize(10)
                     .setTextAlignment(TextAlignment.CENTER)
                     .setMarginBottom(5);
 
-            Image qrImage = new Image(ImageDataFactory.create(new URL(invoice.getQrCodeUrl())));
+            // Vẽ QR dạng vector ngay trong PDF từ chuỗi VietQR
+            BarcodeQRCode qrCode = new BarcodeQRCode(invoice.getQrPayload(),
+                    Map.of(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.M));
+            PdfFormXObject qrObject = qrCode.createFormXObject(ColorConstants.BLACK, document.getPdfDocument());
+            Image qrImage = new Image(qrObject);
             qrImage.setWidth(120);
             qrImage.setHeight(120);
             qrImage.setHorizontalAlignment(HorizontalAlignment.CENTER);
@@ -307,7 +441,7 @@ public class PDFGeneratorService {
             qrCell.add(qrImage);
         } catch (Exception e) {
             qrCell.add(new Paragraph("QR Code không khả dụng")
-                    .setFont(vietnameseFont)
+                    .setFont(fonts.regular())
                     .setFontSize(9));
         }
 
@@ -317,27 +451,14 @@ public class PDFGeneratorService {
         document.add(bankTable);
     }
 
-    private void addFooter(Document document) {
-        Paragraph note = new Paragraph("Lưu ý: Vui lòng chuyển khoản đúng nội dung để xác nhận thanh toán nhanh chóng.")
-                .setFont(vietnameseFont)
-                .setFontSize(9)
-                .setFontColor(new DeviceRgb(107, 114, 128))
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginTop(20);
-
-        Paragraph thanks = new Paragraph("Cảm ơn quý phụ huynh đã tin tưởng!")
-                .setFont(vietnameseFontBold)
-                .setFontSize(11)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginTop(5);
-
-        document.add(note);
-        document.add(thanks);
+    private void addFooter(Document document, Fonts fonts) {
+        // Lưu ý + lời cảm ơn (khối tĩnh)
+        addStaticBlock(document, footerBlock, fonts);
     }
 
     private void addHorizontalLine(Document document) {
         LineSeparator line = new LineSeparator(new SolidLine());
-        line.setStrokeColor(new DeviceRgb(200, 200, 200));
+        line.setStrokeColor(LINE_COLOR);
         line.setMarginTop(10);
         line.setMarginBottom(10);
         document.add(line);
@@ -1,18 +1,37 @@
 package com.tutor_management.backend.service;
 
+import com.tutor_management.backend.dto.request.BulkPaymentRequest;
+import com.tutor_management.backend.dto.request.SessionRecordFilter;
 import com.tutor_management.backend.dto.request.SessionRecordRequest;
+import com.tutor_management.backend.dto.response.BulkPaymentResponse;
+import com.tutor_management.backend.dto.response.SessionRecordBatchResponse;
+import com.tutor_management.backend.dto.response.SessionRecordPage;
 import com.tutor_management.backend.dto.response.SessionRecordResponse;
+import com.tutor_management.backend.dto.response.StudentSessionSummary;
 import com.tutor_management.backend.entity.SessionRecord;
 import com.tutor_management.backend.entity.Student;
+import com.tutor_management.backend.event.SessionRecordsChangedEvent;
 import com.tutor_management.backend.repository.SessionRecordRepository;
+import com.tutor_management.backend.repository.SessionRecordSpecifications;
 import com.tutor_management.backend.repository.StudentRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,47 +41,149 @@ public class SessionRecordService {
 
     private final SessionRecordRepository sessionRecordRepository;
     private final StudentRepository studentRepository;
+    private final MonthlyRollupService monthlyRollupService;
+    private final ApplicationEventPublisher eventPublisher;
     private final DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    @Transactional(readOnly = true)
     public List<SessionRecordResponse> getAllRecords() {
-        List<SessionRecord> records = sessionRecordRepository.findAllByOrderByCreatedAtDesc();
-        return records.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return sessionRecordRepository.findAllResponses();
     }
 
+    @Transactional(readOnly = true)
     public List<SessionRecordResponse> getRecordsByMonth(String month) {
-        List<SessionRecord> records = sessionRecordRepository.findByMonthOrderByCreatedAtDesc(month);
-        return records.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return sessionRecordRepository.findResponsesByMonth(month);
+    }
+
+    @Transactional(readOnly = true)
+    public SessionRecordPage getRecordsPage(SessionRecordFilter filter, String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        LocalDateTime cursorCreatedAt = null;
+        Long cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            cursorCreatedAt = LocalDateTime.parse(parts[0]);
+            cursorId = Long.parseLong(parts[1]);
+        }
+
+        // Lấy thêm 1 dòng để biết còn trang sau hay không
+        List<SessionRecord> records = sessionRecordRepository.findBy(
+                SessionRecordSpecifications.page(filter, cursorCreatedAt, cursorId),
+                query -> query.sortBy(SessionRecordSpecifications.PAGE_SORT).limit(pageSize + 1).all());
+
+        boolean hasMore = records.size() > pageSize;
+        if (hasMore) {
+            records = records.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            SessionRecord last = records.get(records.size() - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+        }
+
+        return SessionRecordPage.builder()
+                .items(records.stream().map(this::convertToResponse).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
     }
 
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public SessionRecordResponse createRecord(SessionRecordRequest request) {
+        // Khoá tháng trước mọi lần đọc: 2 session đầu tiên cùng tháng không thể cùng tính firstInMonth = true
+        monthlyRollupService.lockMonth(request.getMonth());
+
         Student student = studentRepository.findById(request.getStudentId())
                 .orElseThrow(() -> new RuntimeException("Student not found"));
 
-        int hours = request.getSessions() * 2;
-        long totalAmount = hours * student.getPricePerHour();
+        boolean firstInMonth = !sessionRecordRepository.existsByStudentIdAndMonth(student.getId(), request.getMonth());
 
-        SessionRecord record = SessionRecord.builder()
-                .student(student)
-                .month(request.getMonth())
-                .sessions(request.getSessions())
-                .hours(hours)
-                .pricePerHour(student.getPricePerHour())
-                .totalAmount(totalAmount)
-                .paid(false)
-                .notes(request.getNotes())
-                .build();
+        SessionRecord saved = sessionRecordRepository.save(buildRecord(request, student));
+
+        // Session mới luôn chưa thanh toán
+        studentRepository.applySessionDelta(student.getId(), 0L, saved.getTotalAmount(), saved.getMonth());
+        monthlyRollupService.applyDelta(saved.getMonth(), 0L, saved.getTotalAmount(),
+                saved.getSessions(), saved.getHours(), firstInMonth ? 1L : 0L);
+        publishChanged(Set.of(student.getId()), Set.of(saved.getMonth()));
 
-        SessionRecord saved = sessionRecordRepository.save(record);
         return convertToResponse(saved);
     }
 
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public SessionRecordBatchResponse createRecords(List<SessionRecordRequest> requests) {
+        // Mỗi học sinh chỉ load 1 lần cho cả batch
+        Set<Long> studentIds = requests.stream()
+                .map(SessionRecordRequest::getStudentId)
+                .collect(Collectors.toSet());
+        Map<Long, Student> students = studentRepository.findAllById(studentIds)
+                .stream()
+                .collect(Collectors.toMap(Student::getId, Function.identity()));
+
+        SessionRecordBatchResponse.ItemResult[] results = new SessionRecordBatchResponse.ItemResult[requests.size()];
+        List<SessionRecord> toSave = new ArrayList<>();
+        List<Integer> toSaveIndexes = new ArrayList<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            SessionRecordRequest request = requests.get(i);
+            Student student = students.get(request.getStudentId());
+            if (student == null) {
+                results[i] = failedItem(i, "Student not found");
+                continue;
+            }
+            try {
+                toSave.add(buildRecord(request, student));
+                toSaveIndexes.add(i);
+            } catch (DateTimeParseException e) {
+                results[i] = failedItem(i, "Invalid session date: " + request.getSessionDate());
+            }
+        }
+
+        // Id lấy theo block từ sequence nên Hibernate gom INSERT thành JDBC batch (hibernate.jdbc.batch_size)
+        List<SessionRecord> saved = sessionRecordRepository.saveAll(toSave);
+
+        Map<Long, Long> unpaidByStudent = new HashMap<>();
+        Map<Long, String> latestMonthByStudent = new HashMap<>();
+        for (int i = 0; i < saved.size(); i++) {
+            SessionRecord record = saved.get(i);
+            Long studentId = record.getStudent().getId();
+            unpaidByStudent.merge(studentId, record.getTotalAmount(), Long::sum);
+            latestMonthByStudent.merge(studentId, record.getMonth(), (a, b) -> a.compareTo(b) >= 0 ? a : b);
+
+            int index = toSaveIndexes.get(i);
+            results[index] = SessionRecordBatchResponse.ItemResult.builder()
+                    .index(index)
+                    .success(true)
+                    .record(convertToResponse(record))
+                    .build();
+        }
+
+        // 1 UPDATE cho mỗi học sinh thay vì mỗi session
+        unpaidByStudent.forEach((studentId, unpaid) ->
+                studentRepository.applySessionDelta(studentId, 0L, unpaid, latestMonthByStudent.get(studentId)));
+
+        // Tính lại rollup cho các tháng bị ảnh hưởng (1 query mỗi tháng)
+        monthlyRollupService.recomputeMonths(saved.stream().map(SessionRecord::getMonth).collect(Collectors.toSet()));
+        if (!saved.isEmpty()) {
+            publishChanged(unpaidByStudent.keySet(), saved.stream().map(SessionRecord::getMonth).collect(Collectors.toSet()));
+        }
+
+        return SessionRecordBatchResponse.builder()
+                .created(saved.size())
+                .failed(requests.size() - saved.size())
+                .results(List.of(results))
+                .build();
+    }
+
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public SessionRecordResponse togglePayment(Long id) {
-        SessionRecord record = sessionRecordRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Record not found"));
+        // Khoá tháng trước rồi mới đọc và khoá dòng session (cùng thứ tự khoá với createRecord/deleteRecord):
+        // delta chỉ áp dụng đúng 1 lần cho mỗi lần đổi trạng thái
+        SessionRecord record = lockRecord(id);
 
         record.setPaid(!record.getPaid());
         if (record.getPaid()) {
@@ -72,15 +193,76 @@ public class SessionRecordService {
         }
 
         SessionRecord updated = sessionRecordRepository.save(record);
+
+        // Chuyển số tiền giữa totalPaid và totalUnpaid của học sinh
+        long amount = updated.getTotalAmount();
+        long paidDelta = updated.getPaid() ? amount : -amount;
+        studentRepository.applySessionDelta(
+                updated.getStudent().getId(), paidDelta, -paidDelta, updated.getMonth());
+        monthlyRollupService.applyDelta(updated.getMonth(), paidDelta, -paidDelta, 0L, 0L, 0L);
+        publishChanged(Set.of(updated.getStudent().getId()), Set.of(updated.getMonth()));
+
         return convertToResponse(updated);
     }
 
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public BulkPaymentResponse markMonthPaid(BulkPaymentRequest request) {
+        List<Long> studentIds = request.getStudentIds().stream().distinct().collect(Collectors.toList());
+        boolean paid = request.getPaid();
+
+        // Khoá tháng trước khi UPDATE các dòng session (cùng thứ tự khoá với togglePayment)
+        monthlyRollupService.lockMonth(request.getMonth());
+        int updated = sessionRecordRepository.updatePaidForMonth(
+                request.getMonth(), studentIds, paid, paid ? LocalDateTime.now() : null);
+
+        // Tổng của học sinh tính lại bằng UPDATE ... SELECT SUM, cùng transaction
+        if (updated > 0) {
+            studentRepository.refreshTotals(studentIds);
+            monthlyRollupService.recomputeMonth(request.getMonth());
+            publishChanged(Set.copyOf(studentIds), Set.of(request.getMonth()));
+        }
+
+        List<StudentSessionSummary> students = studentRepository.findAllById(studentIds)
+                .stream()
+                .map(student -> new StudentSessionSummary(
+                        student.getId(), student.getTotalPaid(), student.getTotalUnpaid(), student.getLastActiveMonth()))
+                .collect(Collectors.toList());
+
+        return BulkPaymentResponse.builder()
+                .month(request.getMonth())
+                .paid(paid)
+                .updatedCount(updated)
+                .monthTotalPaid(sessionRecordRepository.sumTotalByMonthAndStudentIds(request.getMonth(), studentIds, true))
+                .monthTotalUnpaid(sessionRecordRepository.sumTotalByMonthAndStudentIds(request.getMonth(), studentIds, false))
+                .students(students)
+                .build();
+    }
+
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public void deleteRecord(Long id) {
-        SessionRecord record = sessionRecordRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Record not found"));
+        // Khoá tháng trước khi đọc session và kiểm tra stillActiveInMonth (xem createRecord)
+        SessionRecord record = lockRecord(id);
+
+        Long studentId = record.getStudent().getId();
+        long amount = record.getTotalAmount();
         sessionRecordRepository.delete(record);
+
+        // Trừ số tiền khỏi tổng của học sinh và tính lại tháng hoạt động gần nhất
+        studentRepository.applySessionDelta(
+                studentId, record.getPaid() ? -amount : 0L, record.getPaid() ? 0L : -amount, record.getMonth());
+        studentRepository.refreshLastActiveMonth(studentId);
+
+        boolean stillActiveInMonth = sessionRecordRepository.existsByStudentIdAndMonth(studentId, record.getMonth());
+        monthlyRollupService.applyDelta(record.getMonth(),
+                record.getPaid() ? -amount : 0L,
+                record.getPaid() ? 0L : -amount,
+                -record.getSessions(),
+                -record.getHours(),
+                stillActiveInMonth ? 0L : -1L);
+        publishChanged(Set.of(studentId), Set.of(record.getMonth()));
     }
 
+    @Transactional(readOnly = true)
     public List<String> getDistinctMonths() {
         return sessionRecordRepository.findDistinctMonths();
     }
@@ -102,4 +284,64 @@ public class SessionRecordService {
                 .createdAt(record.getCreatedAt().format(formatter))
                 .build();
     }
-}
\ No newline at end of file
+
+    private SessionRecord buildRecord(SessionRecordRequest request, Student student) {
+        int hours = request.getSessions() * 2;
+        long totalAmount = hours * student.getPricePerHour();
+
+        return SessionRecord.builder()
+                .student(student)
+                .month(request.getMonth())
+                .sessions(request.getSessions())
+                .hours(hours)
+                .pricePerHour(student.getPricePerHour())
+                .totalAmount(totalAmount)
+                .paid(false)
+                .notes(request.getNotes())
+                .sessionDate(LocalDate.parse(request.getSessionDate()))
+                .build();
+    }
+
+    // Listener nhận sau khi transaction commit (xem StatsCache)
+    // Khoá tháng của session rồi đọc và khoá dòng session (dữ liệu mới nhất nhờ READ_COMMITTED)
+    private SessionRecord lockRecord(Long id) {
+        String month = sessionRecordRepository.findMonthById(id)
+                .orElseThrow(() -> new RuntimeException("Record not found"));
+        monthlyRollupService.lockMonth(month);
+        return sessionRecordRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new RuntimeException("Record not found"));
+    }
+
+    private void publishChanged(Set<Long> studentIds, Set<String> months) {
+        eventPublisher.publishEvent(new SessionRecordsChangedEvent(Set.copyOf(studentIds), Set.copyOf(months)));
+    }
+
+    private SessionRecordBatchResponse.ItemResult failedItem(int index, String error) {
+        return SessionRecordBatchResponse.ItemResult.builder()
+                .index(index)
+                .success(false)
+                .error(error)
+                .build();
+    }
+
+    // Cursor = base64url("createdAt|id") của dòng cuối cùng trang trước
+    private String encodeCursor(LocalDateTime createdAt, Long id) {
+        String raw = createdAt.toString() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor", e);
+        }
+    }
+}
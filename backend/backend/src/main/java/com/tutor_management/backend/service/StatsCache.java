@@ -0,0 +1,79 @@
+package com.tutor_management.backend.service;
+
+import com.tutor_management.backend.event.DocumentsChangedEvent;
+import com.tutor_management.backend.event.SessionRecordsChangedEvent;
+import com.tutor_management.backend.event.StudentsChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache cho các endpoint thống kê (dashboard, tài liệu).
+ * Mỗi vùng có 1 version tăng sau mỗi commit ghi dữ liệu liên quan; giá trị cache và ETag đều gắn với version,
+ * nên so sánh If-None-Match chỉ cần đọc version, không chạm tới database.
+ */
+@Component
+public class StatsCache {
+
+    public enum Region { DASHBOARD, DOCUMENTS }
+
+    private record Entry(long version, Object value) {}
+
+    // Đổi mỗi lần khởi động để ETag cũ của trình duyệt không trùng version sau restart
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<Region, AtomicLong> versions = new EnumMap<>(Region.class);
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public StatsCache() {
+        for (Region region : Region.values()) {
+            versions.put(region, new AtomicLong());
+        }
+    }
+
+    public String etag(Region region, String key) {
+        return "\"" + region.name().toLowerCase() + "-" + bootId + "-" + versions.get(region).get()
+                + "-" + Integer.toHexString(key.hashCode()) + "\"";
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Region region, String key, Supplier<T> loader) {
+        long version = versions.get(region).get();
+        String cacheKey = region + ":" + key;
+
+        Entry entry = entries.get(cacheKey);
+        if (entry != null && entry.version() == version) {
+            return (T) entry.value();
+        }
+
+        // Giá trị gắn với version lúc bắt đầu đọc: nếu có commit xen giữa thì entry này tự hết hạn
+        T value = loader.get();
+        entries.put(cacheKey, new Entry(version, value));
+        return value;
+    }
+
+    public void invalidate(Region region) {
+        versions.get(region).incrementAndGet();
+        entries.keySet().removeIf(key -> key.startsWith(region + ":"));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionRecordsChanged(SessionRecordsChangedEvent event) {
+        invalidate(Region.DASHBOARD);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentsChanged(StudentsChangedEvent event) {
+        invalidate(Region.DASHBOARD);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDocumentsChanged(DocumentsChangedEvent event) {
+        invalidate(Region.DOCUMENTS);
+    }
+}
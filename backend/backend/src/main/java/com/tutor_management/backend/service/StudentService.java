@@ -3,9 +3,14 @@ package com.tutor_management.backend.service;
 import com.tutor_management.backend.dto.request.StudentRequest;
 import com.tutor_management.backend.dto.response.StudentResponse;
 import com.tutor_management.backend.entity.*;
+import com.tutor_management.backend.event.StudentsChangedEvent;
 import com.tutor_management.backend.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
@@ -15,11 +20,13 @@ import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
-@Transactional
+@Transactional(readOnly = true)
 public class StudentService {
 
     private final StudentRepository studentRepository;
     private final SessionRecordRepository sessionRecordRepository;
+    private final MonthlyRollupService monthlyRollupService;
+    private final ApplicationEventPublisher eventPublisher;
     private final DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
 
     public List<StudentResponse> getAllStudents() {
@@ -35,6 +42,7 @@ public class StudentService {
         return convertToResponse(student);
     }
 
+    @Transactional
     public StudentResponse createStudent(StudentRequest request) {
         Student student = Student.builder()
                 .name(request.getName())
@@ -48,9 +56,11 @@ public class StudentService {
                 .build();
 
         Student saved = studentRepository.save(student);
+        eventPublisher.publishEvent(new StudentsChangedEvent(saved.getId()));
         return convertToResponse(saved);
     }
 
+    @Transactional
     public StudentResponse updateStudent(Long id, StudentRequest request) {
         Student student = studentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Student not found"));
@@ -69,47 +79,48 @@ public class StudentService {
         }
 
         Student updated = studentRepository.save(student);
+        eventPublisher.publishEvent(new StudentsChangedEvent(updated.getId()));
         return convertToResponse(updated);
     }
 
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public void deleteStudent(Long id) {
         Student student = studentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Student not found"));
 
         // Delete all session records for this student
+        List<String> months = sessionRecordRepository.findDistinctMonthsByStudentId(id);
         List<SessionRecord> records = sessionRecordRepository.findByStudentIdOrderByCreatedAtDesc(id);
         sessionRecordRepository.deleteAll(records);
 
         studentRepository.delete(student);
+
+        // Các tháng học sinh này có session phải tính lại rollup
+        monthlyRollupService.recomputeMonths(months);
+        eventPublisher.publishEvent(new StudentsChangedEvent(id));
     }
 
-    public StudentResponse convertToResponse(Student student) {
-        List<SessionRecord> records = sessionRecordRepository.findByStudentIdOrderByCreatedAtDesc(student.getId());
-
-        Long totalPaid = records.stream()
-                .filter(SessionRecord::getPaid)
-                .mapToLong(SessionRecord::getTotalAmount)
-                .sum();
-
-        Long totalUnpaid = records.stream()
-                .filter(r -> !r.getPaid())
-                .mapToLong(SessionRecord::getTotalAmount)
-                .sum();
-
-        // Tính toán lastActiveMonth
-        String lastActiveMonth = null;
-        if (!records.isEmpty()) {
-            lastActiveMonth = records.stream()
-                    .map(SessionRecord::getMonth)
-                    .max(String::compareTo)
-                    .orElse(null);
-
-            // Cập nhật lastActiveMonth nếu thay đổi
-            if (lastActiveMonth != null && !lastActiveMonth.equals(student.getLastActiveMonth())) {
-                student.setLastActiveMonth(lastActiveMonth);
-                studentRepository.save(student);
-            }
+    // Tính lại tổng học phí và lastActiveMonth của mọi học sinh từ session_records (1 câu UPDATE)
+    @Transactional
+    public void rebuildSessionSummaries() {
+        studentRepository.refreshAllSessionSummaries();
+        eventPublisher.publishEvent(new StudentsChangedEvent(null));
+    }
+
+    // Backfill một lần cho dữ liệu cũ chưa có cột totalPaid / totalUnpaid
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillSessionSummaries() {
+        if (studentRepository.existsByTotalPaidIsNullOrTotalUnpaidIsNull()) {
+            rebuildSessionSummaries();
         }
+    }
+
+    public StudentResponse convertToResponse(Student student) {
+        // Tổng học phí và lastActiveMonth được duy trì sẵn trên Student, không cần query session_records
+        Long totalPaid = student.getTotalPaid() != null ? student.getTotalPaid() : 0L;
+        Long totalUnpaid = student.getTotalUnpaid() != null ? student.getTotalUnpaid() : 0L;
+        String lastActiveMonth = student.getLastActiveMonth();
 
         // Tính monthsLearned
         Integer monthsLearned = calculateMonthsLearned(student.getStartMonth(), lastActiveMonth);
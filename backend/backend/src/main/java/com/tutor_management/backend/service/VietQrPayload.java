@@ -0,0 +1,58 @@
+package com.tutor_management.backend.service;
+
+import java.nio.charset.StandardCharsets;
+
+// ============= VietQR Payload =============
+// Chuỗi EMVCo QR (chuẩn VietQR/NAPAS) cho chuyển khoản có sẵn số tiền và nội dung.
+// Tạo ngay trong ứng dụng để PDF vẽ QR mà không cần gọi img.vietqr.io.
+public final class VietQrPayload {
+
+    private static final String NAPAS_GUID = "A000000727";
+    private static final String SERVICE_ACCOUNT_TRANSFER = "QRIBFTTA";
+    private static final String CURRENCY_VND = "704";
+    private static final String COUNTRY_VN = "VN";
+    private static final int MAX_PURPOSE_LENGTH = 25;
+
+    private VietQrPayload() {
+    }
+
+    public static String build(String bankBin, String accountNumber, long amount, String reference) {
+        String beneficiary = field("00", bankBin) + field("01", accountNumber);
+        String merchantAccount = field("00", NAPAS_GUID)
+                + field("01", beneficiary)
+                + field("02", SERVICE_ACCOUNT_TRANSFER);
+
+        String purpose = reference.length() > MAX_PURPOSE_LENGTH
+                ? reference.substring(0, MAX_PURPOSE_LENGTH)
+                : reference;
+
+        StringBuilder payload = new StringBuilder()
+                .append(field("00", "01"))             // Payload format indicator
+                .append(field("01", "12"))             // QR động (có số tiền)
+                .append(field("38", merchantAccount))
+                .append(field("53", CURRENCY_VND))
+                .append(field("54", String.valueOf(amount)))
+                .append(field("58", COUNTRY_VN))
+                .append(field("62", field("08", purpose)))
+                .append("6304");                       // CRC tính trên toàn bộ chuỗi, kể cả "6304"
+
+        return payload.append(String.format("%04X", crc16(payload.toString()))).toString();
+    }
+
+    // ID (2 ký tự) + độ dài (2 chữ số) + giá trị
+    private static String field(String id, String value) {
+        return id + String.format("%02d", value.length()) + value;
+    }
+
+    // CRC-16/CCITT-FALSE: poly 0x1021, init 0xFFFF
+    static int crc16(String data) {
+        int crc = 0xFFFF;
+        for (byte b : data.getBytes(StandardCharsets.UTF_8)) {
+            crc ^= (b & 0xFF) << 8;
+            for (int i = 0; i < 8; i++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+            }
+        }
+        return crc & 0xFFFF;
+    }
+}
@@ -0,0 +1,92 @@
+package com.tutor_management.backend.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Database riêng cho từng test, mô phỏng bảng session_records_seq mà Hibernate tạo trên MySQL
+class SessionRecordSequenceInitializerTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private SessionRecordSequenceInitializer initializer;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        initializer = new SessionRecordSequenceInitializer(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void movesNextValPastExistingIds() {
+        jdbcTemplate.execute("CREATE TABLE session_records (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE session_records_seq (next_val BIGINT)");
+        jdbcTemplate.update("INSERT INTO session_records_seq VALUES (1)");
+        jdbcTemplate.update("INSERT INTO session_records VALUES (7), (120)");
+
+        initializer.alignSequenceWithExistingIds();
+
+        // Block đầu tiên của pooled optimizer là (next_val - 50, next_val]: phải nằm sau id 120
+        assertThat(jdbcTemplate.queryForObject("SELECT next_val FROM session_records_seq", Long.class))
+                .isEqualTo(171L);
+    }
+
+    @Test
+    void keepsNextValThatIsAlreadyAhead() {
+        jdbcTemplate.execute("CREATE TABLE session_records (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE session_records_seq (next_val BIGINT)");
+        jdbcTemplate.update("INSERT INTO session_records_seq VALUES (1000)");
+        jdbcTemplate.update("INSERT INTO session_records VALUES (120)");
+
+        initializer.alignSequenceWithExistingIds();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT next_val FROM session_records_seq", Long.class))
+                .isEqualTo(1000L);
+    }
+
+    @Test
+    void failsWhenAlignmentCannotRun() {
+        // Có bảng sequence nhưng không đọc được session_records
+        jdbcTemplate.execute("CREATE TABLE session_records_seq (next_val BIGINT)");
+        jdbcTemplate.update("INSERT INTO session_records_seq VALUES (1)");
+
+        assertThatThrownBy(initializer::alignSequenceWithExistingIds)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Could not align");
+    }
+
+    @Test
+    void failsWhenSequenceTableHasNoRow() {
+        jdbcTemplate.execute("CREATE TABLE session_records (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE session_records_seq (next_val BIGINT)");
+
+        assertThatThrownBy(initializer::alignSequenceWithExistingIds)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("exactly 1 row");
+    }
+
+    @Test
+    void skipsNativeSequence() {
+        jdbcTemplate.execute("CREATE TABLE session_records (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE SEQUENCE session_records_seq START WITH 1 INCREMENT BY 50");
+
+        assertThatNoException().isThrownBy(initializer::alignSequenceWithExistingIds);
+    }
+}
@@ -0,0 +1,100 @@
+package com.tutor_management.backend.controller;
+
+import com.tutor_management.backend.dto.request.SessionRecordRequest;
+import com.tutor_management.backend.dto.request.StudentRequest;
+import com.tutor_management.backend.service.DashboardEventService;
+import com.tutor_management.backend.service.SessionRecordService;
+import com.tutor_management.backend.service.StudentService;
+import com.tutor_management.backend.support.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class DashboardEventsTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DashboardEventService dashboardEventService;
+
+    @Autowired
+    private SessionRecordService sessionRecordService;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        TestDatabase.clean(jdbcTemplate);
+    }
+
+    @Test
+    void committedSessionIsPushedToSubscriber() throws Exception {
+        Long studentId = studentService.createStudent(
+                new StudentRequest("An", null, "T2", 100L, null, true, "2025-01")).getId();
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/dashboard/events"))
+                .header("Accept", "text/event-stream")
+                .build();
+        HttpResponse<java.io.InputStream> response = HttpClient.newHttpClient()
+                .send(request, HttpResponse.BodyHandlers.ofInputStream());
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+                type -> assertThat(type).startsWith("text/event-stream"));
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            await().atMost(Duration.ofSeconds(5)).until(() -> dashboardEventService.getSubscriberCount() == 1);
+
+            sessionRecordService.createRecord(
+                    new SessionRecordRequest(studentId, "2025-03", 1, 2.0, "2025-03-05", null));
+
+            // Dòng data ngay sau "event:sessions" chứa tổng mới của học sinh và tháng
+            String data = CompletableFuture.supplyAsync(() -> readEvent(reader, "sessions"))
+                    .get(10, TimeUnit.SECONDS);
+            assertThat(data).contains("\"studentId\":" + studentId)
+                    .contains("\"totalUnpaid\":200")
+                    .contains("\"month\":\"2025-03\"");
+        }
+    }
+
+    private static String readEvent(BufferedReader reader, String name) {
+        try {
+            String line;
+            boolean matched = false;
+            while ((line = reader.readLine()) != null) {
+                if (line.equals("event:" + name)) {
+                    matched = true;
+                } else if (matched && line.startsWith("data:")) {
+                    return line.substring("data:".length());
+                }
+            }
+            throw new IllegalStateException("Stream closed before event " + name);
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.tutor_management.backend.service;
+
+import com.tutor_management.backend.dto.request.SessionRecordRequest;
+import com.tutor_management.backend.dto.request.StudentRequest;
+import com.tutor_management.backend.dto.response.DashboardStats;
+import com.tutor_management.backend.dto.response.MonthlyStats;
+import com.tutor_management.backend.support.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DashboardServiceTest {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private SessionRecordService sessionRecordService;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        TestDatabase.clean(jdbcTemplate);
+    }
+
+    @Test
+    void monthlyStatsHaveOneRowPerMonthNewestFirst() {
+        Long an = createStudent("An", 100L);
+        Long binh = createStudent("Bình", 200L);
+        Long paid = createSession(an, "2025-01", 1);
+        createSession(an, "2025-01", 2);
+        createSession(binh, "2025-03", 1);
+        Long removed = createSession(binh, "2025-02", 1);
+        sessionRecordService.togglePayment(paid);
+        sessionRecordService.deleteRecord(removed);
+
+        List<MonthlyStats> stats = dashboardService.getMonthlyStats();
+
+        // Tháng 2 không còn session nào thì không xuất hiện
+        assertThat(stats)
+                .extracting(MonthlyStats::getMonth, MonthlyStats::getTotalPaid,
+                        MonthlyStats::getTotalUnpaid, MonthlyStats::getTotalSessions)
+                .containsExactly(
+                        tuple("2025-03", 0L, 400L, 1),
+                        tuple("2025-01", 200L, 400L, 3));
+
+        DashboardStats dashboard = dashboardService.getDashboardStats("2025-01");
+        assertThat(dashboard.getTotalStudents()).isEqualTo(2);
+        assertThat(dashboard.getTotalPaidAllTime()).isEqualTo(200L);
+        assertThat(dashboard.getTotalUnpaidAllTime()).isEqualTo(800L);
+        assertThat(dashboard.getCurrentMonthTotal()).isEqualTo(200L);
+        assertThat(dashboard.getCurrentMonthUnpaid()).isEqualTo(400L);
+    }
+
+    private Long createStudent(String name, Long pricePerHour) {
+        return studentService.createStudent(
+                new StudentRequest(name, null, "T2", pricePerHour, null, true, "2025-01")).getId();
+    }
+
+    private Long createSession(Long studentId, String month, int sessions) {
+        return sessionRecordService.createRecord(
+                new SessionRecordRequest(studentId, month, sessions, 2.0, month + "-05", null)).getId();
+    }
+}
@@ -0,0 +1,96 @@
+package com.tutor_management.backend.service;
+
+import com.tutor_management.backend.dto.request.DocumentRequest;
+import com.tutor_management.backend.entity.DocumentCategory;
+import com.tutor_management.backend.support.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DocumentDownloadCounterTest {
+
+    @Autowired
+    private DocumentDownloadCounter documentDownloadCounter;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        TestDatabase.clean(jdbcTemplate);
+    }
+
+    @Test
+    void concurrentDownloadsAreFlushedWithoutLosingCounts() {
+        Long popular = createDocument("Popular");
+        Long rare = createDocument("Rare");
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CompletableFuture<?>[] futures = IntStream.range(0, threads)
+                    .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                        for (int n = 0; n < 500; n++) {
+                            documentService.recordDownload(popular);
+                            // Flush xen giữa lúc đang đếm không được làm mất lượt nào
+                            if (n % 100 == 0) {
+                                documentDownloadCounter.flush();
+                            }
+                        }
+                        documentService.recordDownload(rare);
+                    }, executor))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(futures).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        documentDownloadCounter.flush();
+        assertThat(downloadCount(popular)).isEqualTo(threads * 500L);
+        assertThat(downloadCount(rare)).isEqualTo(threads);
+
+        // Chỉ ghi phần chênh lệch so với lần flush trước
+        documentService.recordDownload(rare);
+        documentDownloadCounter.flush();
+        documentDownloadCounter.flush();
+        assertThat(downloadCount(popular)).isEqualTo(threads * 500L);
+        assertThat(downloadCount(rare)).isEqualTo(threads + 1L);
+    }
+
+    @Test
+    void deletedDocumentDropsUnflushedDownloads() {
+        Long kept = createDocument("Kept");
+        Long deleted = createDocument("Deleted");
+        documentService.recordDownload(kept);
+        documentService.recordDownload(deleted);
+
+        documentService.deleteDocument(deleted);
+        documentDownloadCounter.flush();
+
+        assertThat(downloadCount(kept)).isEqualTo(1L);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM documents", Long.class)).isEqualTo(1L);
+    }
+
+    private long downloadCount(Long documentId) {
+        return jdbcTemplate.queryForObject("SELECT download_count FROM documents WHERE id = ?", Long.class, documentId);
+    }
+
+    private Long createDocument(String title) {
+        return documentService.createDocument("00/" + title, title + ".pdf", 100, "application/pdf",
+                new DocumentRequest(title, DocumentCategory.OTHER, null, null)).getId();
+    }
+}
@@ -0,0 +1,200 @@
+package com.tutor_management.backend.service;
+
+import com.tutor_management.backend.dto.request.DocumentRequest;
+import com.tutor_management.backend.dto.response.DocumentFile;
+import com.tutor_management.backend.dto.response.DocumentResponse;
+import com.tutor_management.backend.dto.response.DocumentStats;
+import com.tutor_management.backend.entity.DocumentCategory;
+import com.tutor_management.backend.support.TestDatabase;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DocumentServiceTest {
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${file.upload-dir}")
+    private Path uploadDir;
+
+    @AfterEach
+    void cleanUp() {
+        TestDatabase.clean(jdbcTemplate);
+    }
+
+    @Test
+    void statisticsAreReadInOneGroupedQuery() {
+        Long grammar = createDocument("Thì hiện tại", DocumentCategory.GRAMMAR, 1024);
+        createDocument("Thì quá khứ", DocumentCategory.GRAMMAR, 2048);
+        Long ielts = createDocument("IELTS Reading", DocumentCategory.IELTS, 4096);
+        jdbcTemplate.update("UPDATE documents SET download_count = 3 WHERE id = ?", grammar);
+        jdbcTemplate.update("UPDATE documents SET download_count = 5 WHERE id = ?", ielts);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        DocumentStats stats = documentService.getStatistics();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(stats.getTotalDocuments()).isEqualTo(3L);
+        assertThat(stats.getTotalSize()).isEqualTo(7168L);
+        assertThat(stats.getTotalDownloads()).isEqualTo(8L);
+        assertThat(stats.getCategoryStats().getGrammar()).isEqualTo(2L);
+        assertThat(stats.getCategoryStats().getIelts()).isEqualTo(1L);
+        assertThat(stats.getCategoryStats().getToeic()).isZero();
+    }
+
+    @Test
+    void statisticsOfEmptyLibraryAreZero() {
+        DocumentStats stats = documentService.getStatistics();
+
+        assertThat(stats.getTotalDocuments()).isZero();
+        assertThat(stats.getTotalSize()).isZero();
+        assertThat(stats.getTotalDownloads()).isZero();
+        assertThat(stats.getCategoryStats().getOther()).isZero();
+    }
+
+    @Test
+    void sameContentIsStoredOnceAndDeletedWithLastReference() {
+        String content = "Bài tập " + UUID.randomUUID();
+        Long first = upload("Bài 1", content);
+        Long second = upload("Bài 2", content);
+
+        String filePath = documentService.getDocumentById(first).getFilePath();
+        assertThat(documentService.getDocumentById(second).getFilePath()).isEqualTo(filePath);
+        assertThat(filePath).endsWith(sha256Hex(content));
+        assertThat(uploadDir.resolve(filePath)).hasContent(content);
+
+        documentService.deleteDocument(first);
+        assertThat(uploadDir.resolve(filePath)).exists();
+
+        documentService.deleteDocument(second);
+        assertThat(uploadDir.resolve(filePath)).doesNotExist();
+    }
+
+    @Test
+    void rolledBackUploadRemovesNewBlob() {
+        String content = "Bài tập " + UUID.randomUUID();
+
+        String filePath = transactionTemplate.execute(status -> {
+            Long id = upload("Bài 1", content);
+            status.setRollbackOnly();
+            return documentService.getDocumentById(id).getFilePath();
+        });
+
+        assertThat(uploadDir.resolve(filePath)).doesNotExist();
+        assertThat(documentService.getAllDocuments()).isEmpty();
+    }
+
+    @Test
+    void rolledBackUploadKeepsBlobOfCommittedDocument() {
+        String content = "Bài tập " + UUID.randomUUID();
+        Long committed = upload("Bài 1", content);
+        String filePath = documentService.getDocumentById(committed).getFilePath();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            upload("Bài 2", content);
+            status.setRollbackOnly();
+        });
+
+        assertThat(uploadDir.resolve(filePath)).hasContent(content);
+    }
+
+    @Test
+    void backfillMovesLegacyFilesIntoContentAddressedStorage() throws IOException {
+        String content = "Tài liệu cũ " + UUID.randomUUID();
+        String legacyName = UUID.randomUUID() + ".pdf";
+        Files.writeString(uploadDir.resolve(legacyName), content);
+        Long id = documentService.createDocument(legacyName, "cu.pdf", content.length(), "application/pdf",
+                new DocumentRequest("Tài liệu cũ", DocumentCategory.OTHER, null, null)).getId();
+        // File mới upload đã lưu theo nội dung: backfill không đụng tới
+        Long current = upload("Bài mới", "Bài tập " + UUID.randomUUID());
+        String currentPath = documentService.getDocumentById(current).getFilePath();
+
+        documentService.backfillContentAddressedFiles();
+
+        DocumentResponse migrated = documentService.getDocumentById(id);
+        assertThat(migrated.getFilePath()).isEqualTo(sha256Hex(content).substring(0, 2) + "/" + sha256Hex(content));
+        assertThat(documentService.getDocumentFile(id).getContentHash()).isEqualTo(sha256Hex(content));
+        assertThat(uploadDir.resolve(migrated.getFilePath())).hasContent(content);
+        assertThat(uploadDir.resolve(legacyName)).doesNotExist();
+        assertThat(documentService.getDocumentById(current).getFilePath()).isEqualTo(currentPath);
+    }
+
+    @Test
+    void documentFileIsResolvedInOneQuery() {
+        String content = "Bài tập " + UUID.randomUUID();
+        Long id = upload("Bài 1", content);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        DocumentFile file = documentService.getDocumentFile(id);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(file.getFileName()).isEqualTo("Bài 1.pdf");
+        assertThat(file.getFileType()).isEqualTo("application/pdf");
+        assertThat(file.getContentHash()).isEqualTo(sha256Hex(content));
+        assertThat(file.getPath()).hasContent(content);
+    }
+
+    @Test
+    void legacyFileNameHasNoContentHash() {
+        String hash = sha256Hex("x");
+
+        assertThat(FileStorageService.contentHash(hash.substring(0, 2) + "/" + hash)).isEqualTo(hash);
+        assertThat(FileStorageService.contentHash(UUID.randomUUID() + ".pdf")).isNull();
+        assertThat(FileStorageService.contentHash("00/" + hash)).isNull();
+    }
+
+    private Long upload(String title, String content) {
+        MockMultipartFile file = new MockMultipartFile("file", title + ".pdf", "application/pdf",
+                content.getBytes(StandardCharsets.UTF_8));
+        return documentService.uploadDocument(file,
+                new DocumentRequest(title, DocumentCategory.OTHER, null, null)).getId();
+    }
+
+    private static String sha256Hex(String content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Long createDocument(String title, DocumentCategory category, long size) {
+        return documentService.createDocument("00/" + title.hashCode(), title + ".pdf", size, "application/pdf",
+                new DocumentRequest(title, category, null, null)).getId();
+    }
+}
@@ -0,0 +1,276 @@
+package com.tutor_management.backend.service;
+
+import com.tutor_management.backend.dto.request.DocumentUploadSessionRequest;
+import com.tutor_management.backend.dto.response.DocumentResponse;
+import com.tutor_management.backend.dto.response.DocumentUploadSessionResponse;
+import com.tutor_management.backend.entity.DocumentCategory;
+import com.tutor_management.backend.repository.DocumentUploadRepository;
+import com.tutor_management.backend.support.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DocumentUploadServiceTest {
+
+    private static final int CHUNK = DocumentUploadService.MIN_CHUNK_SIZE;
+
+    @Autowired
+    private DocumentUploadService documentUploadService;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DocumentUploadRepository documentUploadRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${file.upload-dir}")
+    private Path uploadDir;
+
+    @AfterEach
+    void cleanUp() {
+        TestDatabase.clean(jdbcTemplate);
+    }
+
+    @Test
+    void receivedChunksAreTrackedAsRanges() throws IOException {
+        // 3 chunk, chunk cuối ngắn hơn
+        byte[] content = randomBytes(2 * CHUNK + CHUNK / 2);
+        String uploadId = createUpload(content.length).getUploadId();
+
+        write(uploadId, 2, content);
+        DocumentUploadSessionResponse response = write(uploadId, 0, content);
+
+        assertThat(response.getTotalChunks()).isEqualTo(3);
+        assertThat(response.getReceivedChunks())
+                .extracting(DocumentUploadSessionResponse.ChunkRange::getFirst,
+                        DocumentUploadSessionResponse.ChunkRange::getLast)
+                .containsExactly(tuple(0, 0), tuple(2, 2));
+        assertThat(response.getReceivedBytes()).isEqualTo(CHUNK + CHUNK / 2L);
+        assertThat(response.getComplete()).isFalse();
+        assertThat(documentUploadService.getUpload(uploadId)).isEqualTo(response);
+
+        // Gửi lại chunk đã nhận không làm sai bitmap
+        write(uploadId, 1, content);
+        response = write(uploadId, 1, content);
+        assertThat(response.getReceivedChunks()).hasSize(1);
+        assertThat(response.getReceivedBytes()).isEqualTo((long) content.length);
+        assertThat(response.getComplete()).isTrue();
+    }
+
+    @Test
+    void chunkWithWrongLengthIsRejected() {
+        String uploadId = createUpload(2L * CHUNK).getUploadId();
+
+        assertThatThrownBy(() -> documentUploadService.writeChunk(uploadId, 0, -1,
+                new ByteArrayInputStream(new byte[CHUNK - 1])))
+                .hasMessageContaining("must be " + CHUNK + " bytes");
+        assertThatThrownBy(() -> documentUploadService.writeChunk(uploadId, 2, CHUNK,
+                new ByteArrayInputStream(new byte[CHUNK])))
+                .hasMessageContaining("out of range");
+        assertThat(documentUploadService.getUpload(uploadId).getReceivedChunks()).isEmpty();
+    }
+
+    @Test
+    void incompleteUploadCannotBeCompleted() throws IOException {
+        byte[] content = randomBytes(2 * CHUNK);
+        String uploadId = createUpload(content.length).getUploadId();
+        write(uploadId, 0, content);
+
+        assertThatThrownBy(() -> documentUploadService.completeUpload(uploadId))
+                .hasMessage("Upload is incomplete");
+        assertThat(partFile(uploadId)).exists();
+    }
+
+    @Test
+    void completedUploadBecomesDocumentAndRejectsLateChunks() throws IOException {
+        byte[] content = randomBytes(2 * CHUNK + 100);
+        String uploadId = createUpload(content.length).getUploadId();
+        write(uploadId, 1, content);
+        write(uploadId, 2, content);
+        write(uploadId, 0, content);
+
+        Long id = documentUploadService.completeUpload(uploadId).getId();
+
+        DocumentResponse document = documentService.getDocumentById(id);
+        assertThat(document.getFileSize()).isEqualTo((long) content.length);
+        assertThat(Files.readAllBytes(documentService.getDocumentFile(id).getPath())).isEqualTo(content);
+        assertThat(documentService.getDocumentFile(id).getContentHash())
+                .isEqualTo(FileStorageService.contentHash(document.getFilePath())).isNotNull();
+        assertThat(documentUploadRepository.existsById(uploadId)).isFalse();
+        assertThat(partFile(uploadId)).doesNotExist();
+        assertThatThrownBy(() -> write(uploadId, 0, content)).hasMessage("Upload not found");
+    }
+
+    @Test
+    void rolledBackCompletionKeepsPartFileAndSession() throws IOException {
+        byte[] content = randomBytes(CHUNK + 10);
+        String uploadId = createUpload(content.length).getUploadId();
+        write(uploadId, 0, content);
+        write(uploadId, 1, content);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            documentUploadService.completeUpload(uploadId);
+            status.setRollbackOnly();
+        });
+
+        assertThat(documentService.getAllDocuments()).isEmpty();
+        assertThat(partFile(uploadId)).exists();
+        assertThat(documentUploadService.getUpload(uploadId).getComplete()).isTrue();
+
+        // Hoàn tất lại được, nội dung nguyên vẹn
+        Long id = documentUploadService.completeUpload(uploadId).getId();
+        assertThat(Files.readAllBytes(documentService.getDocumentFile(id).getPath())).isEqualTo(content);
+    }
+
+    @Test
+    void abortedUploadRemovesSessionAndPartFile() throws IOException {
+        byte[] content = randomBytes(2 * CHUNK);
+        String uploadId = createUpload(content.length).getUploadId();
+        write(uploadId, 0, content);
+
+        documentUploadService.abortUpload(uploadId);
+
+        assertThat(documentUploadRepository.existsById(uploadId)).isFalse();
+        assertThat(partFile(uploadId)).doesNotExist();
+        assertThatThrownBy(() -> documentUploadService.getUpload(uploadId)).hasMessage("Upload not found");
+        assertThatThrownBy(() -> documentUploadService.completeUpload(uploadId)).hasMessage("Upload not found");
+    }
+
+    @Test
+    void completionMovesPartFileWithoutRewritingIt() throws IOException {
+        byte[] content = randomBytes(CHUNK + 10);
+        String uploadId = createUpload(content.length).getUploadId();
+        write(uploadId, 0, content);
+        write(uploadId, 1, content);
+        Object partFileKey = Files.readAttributes(partFile(uploadId), BasicFileAttributes.class).fileKey();
+
+        Long id = documentUploadService.completeUpload(uploadId).getId();
+
+        // Cùng inode: file tạm được move vào kho chứ không copy ra file mới
+        assertThat(Files.readAttributes(documentService.getDocumentFile(id).getPath(), BasicFileAttributes.class).fileKey())
+                .isEqualTo(partFileKey);
+    }
+
+    @Test
+    void rolledBackCompletionOfSharedContentRestoresPartFileAndKeepsBlob() throws IOException {
+        byte[] content = randomBytes(CHUNK + 10);
+        String first = createUpload(content.length).getUploadId();
+        write(first, 0, content);
+        write(first, 1, content);
+        Long existing = documentUploadService.completeUpload(first).getId();
+
+        String second = createUpload(content.length).getUploadId();
+        write(second, 0, content);
+        write(second, 1, content);
+        transactionTemplate.executeWithoutResult(status -> {
+            documentUploadService.completeUpload(second);
+            status.setRollbackOnly();
+        });
+
+        assertThat(Files.readAllBytes(partFile(second))).isEqualTo(content);
+        assertThat(Files.readAllBytes(documentService.getDocumentFile(existing).getPath())).isEqualTo(content);
+        assertThat(documentUploadService.completeUpload(second).getId()).isNotEqualTo(existing);
+    }
+
+    @Test
+    void chunkIsWrittenWithoutHoldingTheSessionLockAndRejectedAfterCompletion() throws Exception {
+        byte[] content = randomBytes(2 * CHUNK);
+        String uploadId = createUpload(content.length).getUploadId();
+        write(uploadId, 0, content);
+        write(uploadId, 1, content);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Giả lập completeUpload đang chạy: giữ khoá dòng rồi xoá phiên
+        CompletableFuture<Void> completion = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    documentUploadRepository.findReceivedChunksForUpdate(uploadId);
+                    locked.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    documentUploadRepository.deleteById(uploadId);
+                }));
+        assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+        CountDownLatch bodyConsumed = new CountDownLatch(1);
+        InputStream body = new ByteArrayInputStream(Arrays.copyOf(content, CHUNK)) {
+            @Override
+            public synchronized int read() {
+                int b = super.read();
+                if (b == -1) {
+                    bodyConsumed.countDown();
+                }
+                return b;
+            }
+        };
+        CompletableFuture<DocumentUploadSessionResponse> lateChunk = CompletableFuture.supplyAsync(() -> {
+            try {
+                return documentUploadService.writeChunk(uploadId, 0, CHUNK, body);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        // Chunk được đọc hết trong lúc khoá đang bị giữ, chỉ bước đánh dấu bitmap phải chờ
+        assertThat(bodyConsumed.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(lateChunk).isNotDone();
+
+        release.countDown();
+        completion.get(10, TimeUnit.SECONDS);
+        assertThatThrownBy(() -> lateChunk.get(10, TimeUnit.SECONDS)).hasRootCauseMessage("Upload not found");
+    }
+
+    private DocumentUploadSessionResponse createUpload(long fileSize) {
+        return documentUploadService.createUpload(new DocumentUploadSessionRequest(
+                "Đề thi", DocumentCategory.EXERCISES, null, null, "de-thi.pdf", "application/pdf", fileSize, CHUNK));
+    }
+
+    private DocumentUploadSessionResponse write(String uploadId, int index, byte[] content) throws IOException {
+        int from = index * CHUNK;
+        int to = Math.min(from + CHUNK, content.length);
+        return documentUploadService.writeChunk(uploadId, index, to - from,
+                new ByteArrayInputStream(Arrays.copyOfRange(content, from, to)));
+    }
+
+    private Path partFile(String uploadId) {
+        return uploadDir.resolve(".tmp").resolve(uploadId + ".part");
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random().nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,212 @@
+package com.tutor_management.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileRangeSenderTest {
+
+    private static final String CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final String HASH = "ab".repeat(32);
+    private static final Instant MODIFIED = Instant.parse("2025-03-01T08:00:00Z");
+
+    private final FileRangeSender sender = new FileRangeSender();
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.writeString(tempDir.resolve("doc.txt"), CONTENT);
+        Files.setLastModifiedTime(file, FileTime.from(MODIFIED));
+    }
+
+    @Test
+    void fullFileUsesContentHashAsStrongEtag() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        int status = send(HASH, get(), response);
+
+        assertThat(status).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + HASH + "\"");
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+        assertThat(response.getContentLengthLong()).isEqualTo(CONTENT.length());
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void legacyFileFallsBackToSizeAndModifiedTime() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        send(null, get(), response);
+
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\""
+                + Long.toHexString(CONTENT.length()) + "-" + Long.toHexString(MODIFIED.toEpochMilli()) + "\"");
+    }
+
+    @Test
+    void singleRangeReturnsPartialContent() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-15");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        int status = send(HASH, request, response);
+
+        assertThat(status).isEqualTo(206);
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 10-15/" + CONTENT.length());
+        assertThat(response.getContentLengthLong()).isEqualTo(6);
+        assertThat(response.getContentAsString()).isEqualTo("abcdef");
+    }
+
+    @Test
+    void suffixRangeReturnsTail() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=-3");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        send(HASH, request, response);
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 33-35/36");
+        assertThat(response.getContentAsString()).isEqualTo("xyz");
+    }
+
+    @Test
+    void ifRangeWithMatchingEtagHonoursRange() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"" + HASH + "\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(send(HASH, request, response)).isEqualTo(206);
+        assertThat(response.getContentAsString()).isEqualTo("0123");
+    }
+
+    @Test
+    void ifRangeWithMatchingDateHonoursRange() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        request.addHeader(HttpHeaders.IF_RANGE, Date.from(MODIFIED));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(send(HASH, request, response)).isEqualTo(206);
+    }
+
+    @Test
+    void ifRangeWithStaleEtagSendsWholeFile() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"" + "cd".repeat(32) + "\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(send(HASH, request, response)).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void multipleRangesAreSentAsMultipartByteranges() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-1,10-12");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(send(HASH, request, response)).isEqualTo(206);
+
+        String contentType = response.getContentType();
+        assertThat(contentType).startsWith("multipart/byteranges; boundary=");
+        String boundary = contentType.substring(contentType.indexOf('=') + 1);
+        assertThat(response.getContentAsString()).isEqualTo(
+                "\r\n--" + boundary + "\r\n"
+                        + "Content-Type: text/plain\r\n"
+                        + "Content-Range: bytes 0-1/36\r\n\r\n"
+                        + "01"
+                        + "\r\n--" + boundary + "\r\n"
+                        + "Content-Type: text/plain\r\n"
+                        + "Content-Range: bytes 10-12/36\r\n\r\n"
+                        + "abc"
+                        + "\r\n--" + boundary + "--\r\n");
+    }
+
+    @Test
+    void overlappingRangesLargerThanFileAreRejected() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-30,5-35");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(send(HASH, request, response)).isEqualTo(416);
+    }
+
+    @Test
+    void rangeBeyondEndIsNotSatisfiable() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=100-200");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(send(HASH, request, response)).isEqualTo(416);
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */36");
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void matchingIfNoneMatchReturnsNotModified() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"" + HASH + "\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(send(HASH, request, response)).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void headSendsHeadersWithoutBody() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("HEAD", "/doc");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(send(HASH, request, response)).isEqualTo(200);
+        assertThat(response.getContentLengthLong()).isEqualTo(CONTENT.length());
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void sendfileConnectorGetsFileRegionInsteadOfBody() throws IOException {
+        MockHttpServletRequest request = get();
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-15");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(send(HASH, request, response)).isEqualTo(206);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename"))
+                .isEqualTo(file.toAbsolutePath().toString());
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(10L);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(16L);
+    }
+
+    private MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/doc");
+    }
+
+    private int send(String contentHash, MockHttpServletRequest request, MockHttpServletResponse response)
+            throws IOException {
+        return sender.send(file, contentHash, "text/plain",
+                ContentDisposition.inline().filename("doc.txt").build(),
+                CacheControl.noCache(), request, response);
+    }
+}
@@ -0,0 +1,97 @@
+package com.tutor_management.backend.service;
+
+import com.tutor_management.backend.dto.request.SessionRecordRequest;
+import com.tutor_management.backend.dto.request.StudentRequest;
+import com.tutor_management.backend.support.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class InvoiceBatchServiceTest {
+
+    @Autowired
+    private InvoiceBatchService invoiceBatchService;
+
+    @Autowired
+    private SessionRecordService sessionRecordService;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        TestDatabase.clean(jdbcTemplate);
+    }
+
+    @Test
+    void zipContainsOnePdfPerStudentWithUnpaidSessionsInOrder() throws IOException {
+        // Nhiều hơn MAX_CONCURRENT_RENDERS để cửa sổ render phải trượt
+        int count = InvoiceBatchService.MAX_CONCURRENT_RENDERS + 3;
+        for (int i = 0; i < count; i++) {
+            Long studentId = createStudent(String.format("HS %02d", i));
+            createSession(studentId, "2025-03");
+        }
+        Long paidOnly = createStudent("Đã trả");
+        sessionRecordService.togglePayment(createSession(paidOnly, "2025-03"));
+
+        List<Long> studentIds = invoiceBatchService.resolveStudentIds("2025-03", null);
+        assertThat(studentIds).hasSize(count).doesNotContain(paidOnly);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        invoiceBatchService.writeZip("2025-03", studentIds, out);
+
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()), StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                names.add(entry.getName());
+                byte[] content = zip.readAllBytes();
+                assertThat(new String(content, 0, 5, StandardCharsets.US_ASCII)).isEqualTo("%PDF-");
+            }
+        }
+        assertThat(names).hasSize(count).doesNotContain("errors.txt");
+        assertThat(names.get(0)).endsWith("-HS 00.pdf");
+        assertThat(names.get(count - 1)).endsWith(String.format("-HS %02d.pdf", count - 1));
+    }
+
+    @Test
+    void requestedStudentsAreFilteredToThoseWithUnpaidSessions() {
+        Long an = createStudent("An");
+        Long binh = createStudent("Bình");
+        Long chi = createStudent("Chi");
+        createSession(an, "2025-03");
+        createSession(binh, "2025-03");
+        createSession(chi, "2025-04");
+
+        assertThat(invoiceBatchService.resolveStudentIds("2025-03", List.of(an, chi))).containsExactly(an);
+    }
+
+    private Long createStudent(String name) {
+        return studentService.createStudent(
+                new StudentRequest(name, null, "T2", 100L, null, true, "2025-01")).getId();
+    }
+
+    private Long createSession(Long studentId, String month) {
+        return sessionRecordService.createRecord(
+                new SessionRecordRequest(studentId, month, 1, 2.0, month + "-05", null)).getId();
+    }
+}
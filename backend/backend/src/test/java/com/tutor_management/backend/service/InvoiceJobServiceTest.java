@@ -0,0 +1,132 @@
+package com.tutor_management.backend.service;
+
+import com.tutor_management.backend.controller.InvoiceController;
+import com.tutor_management.backend.dto.request.InvoiceBatchRequest;
+import com.tutor_management.backend.dto.request.SessionRecordRequest;
+import com.tutor_management.backend.dto.request.StudentRequest;
+import com.tutor_management.backend.dto.response.InvoiceJobResponse;
+import com.tutor_management.backend.support.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class InvoiceJobServiceTest {
+
+    @Autowired
+    private InvoiceJobService invoiceJobService;
+
+    @Autowired
+    private InvoiceController invoiceController;
+
+    @Autowired
+    private SessionRecordService sessionRecordService;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        TestDatabase.clean(jdbcTemplate);
+    }
+
+    @Test
+    void workerStartsOnlyAfterSubmitCommits() throws Exception {
+        createStudentWithSession("An");
+        createStudentWithSession("Bình");
+
+        // Worker chạy trước commit sẽ không thấy job và job kẹt ở QUEUED
+        InvoiceJobResponse submitted = transactionTemplate.execute(status -> {
+            InvoiceJobResponse job = invoiceJobService.submit(new InvoiceBatchRequest("2025-03", null));
+            sleep(Duration.ofMillis(300));
+            return job;
+        });
+
+        await().atMost(Duration.ofSeconds(20))
+                .until(() -> invoiceJobService.getJob(submitted.getId()).getStatus().equals("COMPLETED"));
+
+        InvoiceJobResponse job = invoiceJobService.getJob(submitted.getId());
+        assertThat(job.getCompletedItems()).isEqualTo(2);
+        try (InputStream in = invoiceJobService.getItemPdf(job.getId(), job.getItems().get(0).getId())
+                .orElseThrow().getInputStream()) {
+            assertThat(new String(in.readNBytes(5), StandardCharsets.US_ASCII)).isEqualTo("%PDF-");
+        }
+
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        invoiceJobService.writeZip(job.getId(), zip);
+        int entries = 0;
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip.toByteArray()), StandardCharsets.UTF_8)) {
+            while (in.getNextEntry() != null) {
+                entries++;
+            }
+        }
+        assertThat(entries).isEqualTo(2);
+    }
+
+    @Test
+    void rolledBackSubmitLeavesNoJob() {
+        createStudentWithSession("An");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            invoiceJobService.submit(new InvoiceBatchRequest("2025-03", List.of()));
+            status.setRollbackOnly();
+        });
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM invoice_jobs", Long.class)).isZero();
+    }
+
+    @Test
+    void itemDownloadReturnsNotFoundForUnknownJobOrItem() throws Exception {
+        createStudentWithSession("An");
+        InvoiceJobResponse job = invoiceJobService.submit(new InvoiceBatchRequest("2025-03", null));
+        Long itemId = job.getItems().get(0).getId();
+
+        assertThat(invoiceController.downloadInvoiceJobItem(job.getId() + 1, itemId).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(invoiceController.downloadInvoiceJobItem(job.getId(), itemId + 1).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+
+        await().atMost(Duration.ofSeconds(20))
+                .until(() -> invoiceJobService.isFinished(job.getId()));
+        assertThat(invoiceController.downloadInvoiceJobItem(job.getId(), itemId).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+    }
+
+    private void createStudentWithSession(String name) {
+        Long studentId = studentService.createStudent(
+                new StudentRequest(name, null, "T2", 100L, null, true, "2025-01")).getId();
+        sessionRecordService.createRecord(new SessionRecordRequest(studentId, "2025-03", 1, 2.0, "2025-03-05", null));
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.tutor_management.backend.service;
+
+import com.tutor_management.backend.repository.InvoiceSequenceRepository;
+import com.tutor_management.backend.support.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class InvoiceNumberGeneratorTest {
+
+    @Autowired
+    private InvoiceSequenceRepository invoiceSequenceRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        TestDatabase.clean(jdbcTemplate);
+    }
+
+    @Test
+    void numbersAreHandedOutFromReservedBlocks() {
+        InvoiceNumberGenerator generator = newNode();
+
+        assertThat(generator.next("2025-03")).isEqualTo("INV-2025-03-001");
+        assertThat(generator.next("2025-03")).isEqualTo("INV-2025-03-002");
+        assertThat(generator.next("2025-04")).isEqualTo("INV-2025-04-001");
+        // Mỗi tháng chỉ giữ 1 khối dù đã cấp nhiều số
+        assertThat(nextValueInDatabase("2025-03")).isEqualTo(InvoiceNumberGenerator.BLOCK_SIZE + 1);
+
+        for (int i = 3; i <= InvoiceNumberGenerator.BLOCK_SIZE; i++) {
+            generator.nextValue("2025-03");
+        }
+        assertThat(generator.nextValue("2025-03")).isEqualTo(InvoiceNumberGenerator.BLOCK_SIZE + 1);
+        assertThat(nextValueInDatabase("2025-03")).isEqualTo(2 * InvoiceNumberGenerator.BLOCK_SIZE + 1);
+    }
+
+    @Test
+    void restartSkipsRestOfBlockInsteadOfReusingNumbers() {
+        newNode().nextValue("2025-03");
+
+        assertThat(newNode().nextValue("2025-03")).isEqualTo(InvoiceNumberGenerator.BLOCK_SIZE + 1);
+    }
+
+    @Test
+    void concurrentNodesNeverHandOutTheSameNumber() {
+        List<InvoiceNumberGenerator> nodes = List.of(newNode(), newNode(), newNode());
+        int threads = 6;
+        int perThread = 50;
+        Set<Long> values = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // Các node cùng bắt đầu với tháng chưa có dòng sequence
+            CompletableFuture<?>[] futures = IntStream.range(0, threads)
+                    .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                        awaitQuietly(start);
+                        for (int n = 0; n < perThread; n++) {
+                            assertThat(values.add(nodes.get(i % nodes.size()).nextValue("2025-05"))).isTrue();
+                        }
+                    }, executor))
+                    .toArray(CompletableFuture[]::new);
+            start.countDown();
+            CompletableFuture.allOf(futures).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(values).hasSize(threads * perThread);
+        assertThat(values).allSatisfy(value -> assertThat(value).isPositive());
+    }
+
+    private InvoiceNumberGenerator newNode() {
+        return new InvoiceNumberGenerator(invoiceSequenceRepository, transactionManager);
+    }
+
+    private long nextValueInDatabase(String month) {
+        return jdbcTemplate.queryForObject("SELECT next_value FROM invoice_sequences WHERE month = ?", Long.class, month);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.tutor_management.backend.service;
+
+import com.tutor_management.backend.dto.request.InvoiceRequest;
+import com.tutor_management.backend.dto.request.SessionRecordRequest;
+import com.tutor_management.backend.dto.request.StudentRequest;
+import com.tutor_management.backend.dto.response.InvoiceResponse;
+import com.tutor_management.backend.support.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class InvoicePdfCacheTest {
+
+    @Autowired
+    private PDFGeneratorService pdfGeneratorService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private SessionRecordService sessionRecordService;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path uploadDir;
+
+    @AfterEach
+    void cleanUp() {
+        TestDatabase.clean(jdbcTemplate);
+    }
+
+    @Test
+    void secondDownloadIsServedFromCachedFile() throws Exception {
+        InvoicePdfCache cache = new InvoicePdfCache(uploadDir.toString(), pdfGeneratorService);
+        InvoiceResponse invoice = createInvoice();
+
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        cache.writeTo(invoice, first);
+        assertThat(new String(first.toByteArray(), 0, 5, StandardCharsets.US_ASCII)).isEqualTo("%PDF-");
+
+        Path cached = singleCachedFile();
+        assertThat(Files.readAllBytes(cached)).isEqualTo(first.toByteArray());
+
+        // Đánh dấu file cache: lần tải sau phải trả đúng nội dung file, không render lại
+        Files.write(cached, "cached".getBytes(StandardCharsets.US_ASCII));
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        cache.writeTo(invoice, second);
+        assertThat(second.toString(StandardCharsets.US_ASCII)).isEqualTo("cached");
+        assertThat(cache.getOrRender(invoice).getFile().toPath()).isEqualTo(cached);
+    }
+
+    @Test
+    void templateVersionChangeRendersAgain() throws Exception {
+        InvoiceResponse invoice = createInvoice();
+        InvoicePdfCache current = new InvoicePdfCache(uploadDir.toString(), pdfGeneratorService,
+                PDFGeneratorService.TEMPLATE_VERSION);
+        Path cached = current.getOrRender(invoice).getFile().toPath();
+        Files.write(cached, "old layout".getBytes(StandardCharsets.US_ASCII));
+
+        InvoicePdfCache next = new InvoicePdfCache(uploadDir.toString(), pdfGeneratorService,
+                PDFGeneratorService.TEMPLATE_VERSION + 1);
+        Path rendered = next.getOrRender(invoice).getFile().toPath();
+
+        assertThat(rendered).isNotEqualTo(cached);
+        assertThat(new String(Files.readAllBytes(rendered), 0, 5, StandardCharsets.US_ASCII)).isEqualTo("%PDF-");
+    }
+
+    private Path singleCachedFile() throws Exception {
+        try (Stream<Path> files = Files.list(uploadDir.resolve("invoices"))) {
+            return files.reduce((a, b) -> {
+                throw new AssertionError("Expected a single cached PDF");
+            }).orElseThrow();
+        }
+    }
+
+    private InvoiceResponse createInvoice() {
+        Long studentId = studentService.createStudent(
+                new StudentRequest("An", null, "T2", 100L, null, true, "2025-01")).getId();
+        sessionRecordService.createRecord(new SessionRecordRequest(studentId, "2025-03", 1, 2.0, "2025-03-05", null));
+        return invoiceService.generateInvoice(InvoiceRequest.builder().studentId(studentId).month("2025-03").build());
+    }
+}
@@ -0,0 +1,129 @@
+package com.tutor_management.backend.service;
+
+import com.tutor_management.backend.dto.request.InvoiceRequest;
+import com.tutor_management.backend.dto.request.SessionRecordRequest;
+import com.tutor_management.backend.dto.request.StudentRequest;
+import com.tutor_management.backend.dto.response.InvoiceItem;
+import com.tutor_management.backend.dto.response.InvoiceResponse;
+import com.tutor_management.backend.support.TestDatabase;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class InvoiceServiceTest {
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private SessionRecordService sessionRecordService;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        TestDatabase.clean(jdbcTemplate);
+    }
+
+    @Test
+    void monthlyInvoiceForAllStudentsIsAggregatedPerStudent() {
+        Long an = createStudent("An", 100L);
+        Long binh = createStudent("Bình", 200L);
+        createSession(an, "2025-03", 1);
+        createSession(an, "2025-03", 2);
+        createSession(binh, "2025-03", 1);
+        createSession(binh, "2025-04", 5);
+        statistics.clear();
+
+        InvoiceResponse invoice = invoiceService.generateInvoice(
+                InvoiceRequest.builder().month("2025-03").allStudents(true).build());
+
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(invoice.getStudentName()).isEqualTo("TẤT CẢ HỌC SINH");
+        assertThat(invoice.getItems())
+                .extracting(InvoiceItem::getDescription, InvoiceItem::getSessions, InvoiceItem::getAmount)
+                .containsExactly(
+                        tuple("An - Học phí tháng", 3, 600L),
+                        tuple("Bình - Học phí tháng", 1, 400L));
+        assertThat(invoice.getTotalAmount()).isEqualTo(1000L);
+        assertThat(invoice.getInvoiceNumber()).startsWith("INV-2025-03-").endsWith("-ALL");
+    }
+
+    @Test
+    void multiStudentInvoiceOnlyIncludesSelectedStudents() {
+        Long an = createStudent("An", 100L);
+        Long binh = createStudent("Bình", 200L);
+        Long chi = createStudent("Chi", 300L);
+        createSession(an, "2025-03", 1);
+        createSession(binh, "2025-03", 1);
+        createSession(chi, "2025-03", 1);
+
+        InvoiceResponse invoice = invoiceService.generateInvoice(InvoiceRequest.builder()
+                .month("2025-03")
+                .multipleStudents(true)
+                .selectedStudentIds(List.of(chi, an))
+                .build());
+
+        assertThat(invoice.getStudentName()).isEqualTo("An và Chi");
+        assertThat(invoice.getItems()).extracting(InvoiceItem::getAmount).containsExactly(200L, 600L);
+        assertThat(invoice.getTotalAmount()).isEqualTo(800L);
+    }
+
+    @Test
+    void unchangedSessionsReturnTheSameSnapshot() {
+        Long an = createStudent("An", 100L);
+        createSession(an, "2025-03", 1);
+        InvoiceRequest request = InvoiceRequest.builder().studentId(an).month("2025-03").build();
+
+        InvoiceResponse first = invoiceService.generateInvoice(request);
+        InvoiceResponse again = invoiceService.generateInvoice(request);
+        assertThat(again.getInvoiceNumber()).isEqualTo(first.getInvoiceNumber());
+        assertThat(again.getItems()).usingRecursiveFieldByFieldElementComparator().isEqualTo(first.getItems());
+        assertThat(invoiceService.getInvoiceByNumber(first.getInvoiceNumber()).getTotalAmount()).isEqualTo(200L);
+
+        // Thêm session làm nội dung đổi: cấp số mới, snapshot cũ giữ nguyên
+        createSession(an, "2025-03", 2);
+        InvoiceResponse changed = invoiceService.generateInvoice(request);
+        assertThat(changed.getInvoiceNumber()).isNotEqualTo(first.getInvoiceNumber());
+        assertThat(changed.getTotalAmount()).isEqualTo(600L);
+        assertThat(invoiceService.getInvoiceByNumber(first.getInvoiceNumber()).getTotalAmount()).isEqualTo(200L);
+    }
+
+    private Long createStudent(String name, Long pricePerHour) {
+        return studentService.createStudent(
+                new StudentRequest(name, null, "T2", pricePerHour, null, true, "2025-01")).getId();
+    }
+
+    private Long createSession(Long studentId, String month, int sessions) {
+        return sessionRecordService.createRecord(
+                new SessionRecordRequest(studentId, month, sessions, 2.0, month + "-05", null)).getId();
+    }
+}
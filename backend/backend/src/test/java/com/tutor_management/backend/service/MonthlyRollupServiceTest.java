@@ -0,0 +1,215 @@
+package com.tutor_management.backend.service;
+
+import com.tutor_management.backend.dto.request.SessionRecordRequest;
+import com.tutor_management.backend.dto.request.StudentRequest;
+import com.tutor_management.backend.dto.response.RollupRebuildReport;
+import com.tutor_management.backend.entity.MonthlyRollup;
+import com.tutor_management.backend.repository.MonthlyRollupRepository;
+import com.tutor_management.backend.support.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MonthlyRollupServiceTest {
+
+    @Autowired
+    private MonthlyRollupService monthlyRollupService;
+
+    @Autowired
+    private MonthlyRollupRepository monthlyRollupRepository;
+
+    @Autowired
+    private SessionRecordService sessionRecordService;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        TestDatabase.clean(jdbcTemplate);
+    }
+
+    @Test
+    void deltasFollowCreateTogglePaymentAndDelete() {
+        Long an = createStudent("An", 100L);
+        Long binh = createStudent("Bình", 200L);
+        Long first = createSession(an, "2025-04", 1);
+        createSession(an, "2025-04", 2);
+        Long other = createSession(binh, "2025-04", 1);
+
+        sessionRecordService.togglePayment(first);
+        assertThat(monthlyRollupRepository.findById("2025-04")).hasValueSatisfying(rollup -> {
+            assertThat(rollup.getTotalPaid()).isEqualTo(200L);
+            assertThat(rollup.getTotalUnpaid()).isEqualTo(800L);
+            assertThat(rollup.getTotalSessions()).isEqualTo(4L);
+            assertThat(rollup.getTotalHours()).isEqualTo(8L);
+            assertThat(rollup.getActiveStudents()).isEqualTo(2L);
+        });
+
+        // Xoá session duy nhất của Bình: tháng còn 1 học sinh hoạt động
+        sessionRecordService.deleteRecord(other);
+        assertThat(monthlyRollupRepository.findById("2025-04")).hasValueSatisfying(rollup -> {
+            assertThat(rollup.getTotalUnpaid()).isEqualTo(400L);
+            assertThat(rollup.getActiveStudents()).isEqualTo(1L);
+        });
+
+        // Xoá học sinh cuối cùng của tháng thì dòng rollup cũng bị xoá
+        studentService.deleteStudent(an);
+        assertThat(monthlyRollupRepository.findById("2025-04")).isEmpty();
+        assertThat(monthlyRollupService.rebuild().getMonthsDrifted()).isZero();
+    }
+
+    @Test
+    void concurrentFirstSessionsOfNewMonthAreCountedOnce() throws Exception {
+        List<Long> students = List.of(createStudent("An", 100L), createStudent("Bình", 200L));
+        int writers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            // Mỗi học sinh có 4 luồng cùng ghi session đầu tiên của tháng mới
+            List<CompletableFuture<Long>> futures = IntStream.range(0, writers)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                        await(start);
+                        return createSession(students.get(i % 2), "2025-06", 1);
+                    }, executor))
+                    .toList();
+            start.countDown();
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        MonthlyRollup rollup = monthlyRollupRepository.findById("2025-06").orElseThrow();
+        assertThat(rollup.getTotalSessions()).isEqualTo(8L);
+        assertThat(rollup.getTotalUnpaid()).isEqualTo(4 * 200L + 4 * 400L);
+        assertThat(rollup.getActiveStudents()).isEqualTo(2L);
+        assertThat(monthlyRollupService.rebuild().getMonthsDrifted()).isZero();
+    }
+
+    @Test
+    void rebuildReportsAndRepairsDrift() {
+        Long an = createStudent("An", 100L);
+        createSession(an, "2025-01", 1);
+        createSession(an, "2025-02", 1);
+        jdbcTemplate.update("UPDATE monthly_rollup SET total_unpaid = 1, active_students = 3 WHERE month = '2025-01'");
+        jdbcTemplate.update("DELETE FROM monthly_rollup WHERE month = '2025-02'");
+        jdbcTemplate.update("INSERT INTO monthly_rollup (month, total_paid, total_unpaid, total_sessions, total_hours, " +
+                "active_students, updated_at) VALUES ('2024-12', 5, 0, 1, 2, 1, CURRENT_TIMESTAMP)");
+
+        RollupRebuildReport report = monthlyRollupService.rebuild();
+
+        assertThat(report.getMonthsChecked()).isEqualTo(3);
+        assertThat(report.getMonthsDrifted()).isEqualTo(3);
+        assertThat(report.getDrifts())
+                .extracting(RollupRebuildReport.Drift::getMonth, RollupRebuildReport.Drift::getField,
+                        RollupRebuildReport.Drift::getStored, RollupRebuildReport.Drift::getActual)
+                .contains(
+                        tuple("2025-02", "totalUnpaid", null, 200L),
+                        tuple("2025-01", "totalUnpaid", 1L, 200L),
+                        tuple("2025-01", "activeStudents", 3L, 1L),
+                        tuple("2024-12", "totalPaid", 5L, null));
+
+        assertThat(monthlyRollupRepository.findAll())
+                .extracting(MonthlyRollup::getMonth, MonthlyRollup::getTotalUnpaid, MonthlyRollup::getActiveStudents)
+                .containsExactlyInAnyOrder(tuple("2025-01", 200L, 1L), tuple("2025-02", 200L, 1L));
+        assertThat(monthlyRollupService.rebuild().getMonthsDrifted()).isZero();
+    }
+
+    @Test
+    void concurrentTogglesKeepPaidAndUnpaidTotalsInSync() {
+        Long an = createStudent("An", 100L);
+        Long id = createSession(an, "2025-08", 1);
+        int toggles = 6;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(toggles);
+        try {
+            List<CompletableFuture<Void>> futures = IntStream.range(0, toggles)
+                    .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                        await(start);
+                        sessionRecordService.togglePayment(id);
+                    }, executor))
+                    .toList();
+            start.countDown();
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        // Số lần đổi chẵn: quay về chưa thanh toán
+        MonthlyRollup rollup = monthlyRollupRepository.findById("2025-08").orElseThrow();
+        assertThat(rollup.getTotalPaid()).isZero();
+        assertThat(rollup.getTotalUnpaid()).isEqualTo(200L);
+        assertThat(monthlyRollupService.rebuild().getMonthsDrifted()).isZero();
+    }
+
+    @Test
+    void rebuildWaitsForMonthLockAndKeepsConcurrentDelta() throws Exception {
+        Long an = createStudent("An", 100L);
+        createSession(an, "2025-07", 1);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Transaction đang ghi session mới vào tháng (giữ khoá tháng tới lúc commit)
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    createSession(an, "2025-07", 2);
+                    locked.countDown();
+                    await(release);
+                }));
+        assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<RollupRebuildReport> rebuild = CompletableFuture.supplyAsync(monthlyRollupService::rebuild);
+        Thread.sleep(300);
+        assertThat(rebuild).isNotDone();
+
+        release.countDown();
+        writer.get(10, TimeUnit.SECONDS);
+        assertThat(rebuild.get(10, TimeUnit.SECONDS).getMonthsDrifted()).isZero();
+
+        MonthlyRollup rollup = monthlyRollupRepository.findById("2025-07").orElseThrow();
+        assertThat(rollup.getTotalSessions()).isEqualTo(3L);
+        assertThat(rollup.getTotalUnpaid()).isEqualTo(600L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Long createStudent(String name, Long pricePerHour) {
+        return studentService.createStudent(
+                new StudentRequest(name, null, "T2", pricePerHour, null, true, "2025-01")).getId();
+    }
+
+    private Long createSession(Long studentId, String month, int sessions) {
+        return sessionRecordService.createRecord(
+                new SessionRecordRequest(studentId, month, sessions, 2.0, month + "-05", null)).getId();
+    }
+}
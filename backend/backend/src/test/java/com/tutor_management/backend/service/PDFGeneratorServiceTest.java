@@ -0,0 +1,126 @@
+package com.tutor_management.backend.service;
+
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.tutor_management.backend.dto.response.BankInfo;
+import com.tutor_management.backend.dto.response.InvoiceItem;
+import com.tutor_management.backend.dto.response.InvoiceResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PDFGeneratorServiceTest {
+
+    private final PDFGeneratorService pdfGeneratorService = new PDFGeneratorService();
+
+    @Test
+    void consecutiveRendersShareStaticBlocksAndStayValid() throws Exception {
+        // Font program và khối tĩnh dùng chung giữa các document: document thứ 2 cũng phải đầy đủ
+        byte[] first = pdfGeneratorService.generateInvoicePDF(invoice("INV-2025-03-001", "Nguyễn Văn An", 3));
+        byte[] second = pdfGeneratorService.generateInvoicePDF(invoice("INV-2025-03-002", "Trần Thị Bình", 120));
+
+        String firstText = extractText(first);
+        assertThat(firstText).contains("BÁO GIÁ HỌC PHÍ", "Nguyễn Văn An", "INV-2025-03-001",
+                "Cảm ơn quý phụ huynh đã tin tưởng!");
+        assertThat(firstText).doesNotContain("Trần Thị Bình");
+
+        String secondText = extractText(second);
+        assertThat(secondText).contains("BÁO GIÁ HỌC PHÍ", "Trần Thị Bình", "INV-2025-03-002",
+                "Cảm ơn quý phụ huynh đã tin tưởng!");
+        assertThat(secondText).doesNotContain("Nguyễn Văn An");
+    }
+
+    @Test
+    void largeInvoiceIsWrittenPageByPageWithoutClosingTheStream() throws Exception {
+        ClosingTrackingStream out = new ClosingTrackingStream();
+        pdfGeneratorService.writeInvoicePDF(invoice("INV-2025-03-ALL", "TẤT CẢ HỌC SINH", 600), out);
+
+        assertThat(out.closed).isFalse();
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(out.toByteArray())))) {
+            int pages = document.getNumberOfPages();
+            assertThat(pages).isGreaterThan(10);
+            // Bảng lớn: dòng tiêu đề lặp lại trên mọi trang, dòng tổng chỉ ở trang cuối
+            for (int page = 1; page <= pages; page++) {
+                assertThat(PdfTextExtractor.getTextFromPage(document.getPage(page))).contains("Thành tiền");
+            }
+            assertThat(PdfTextExtractor.getTextFromPage(document.getPage(pages))).contains("TỔNG CỘNG");
+            assertThat(PdfTextExtractor.getTextFromPage(document.getPage(1))).doesNotContain("TỔNG CỘNG");
+        }
+    }
+
+    @Test
+    void staticBlocksAreFormXObjectsInFullyCompressedPdf() throws Exception {
+        byte[] pdf = pdfGeneratorService.generateInvoicePDF(invoice("INV-2025-03-001", "Nguyễn Văn An", 3));
+
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+            // Xref dạng stream chỉ có khi bật full compression
+            assertThat(document.getTrailer().get(PdfName.Type)).isEqualTo(PdfName.XRef);
+
+            PdfDictionary xObjects = document.getPage(1).getResources().getResource(PdfName.XObject);
+            assertThat(xObjects).isNotNull();
+            assertThat(xObjects.keySet())
+                    .extracting(name -> xObjects.getAsStream(name).getAsName(PdfName.Subtype))
+                    .contains(PdfName.Form);
+
+            // Font được subset: tên có tiền tố 6 chữ cái + "+"
+            PdfDictionary fonts = document.getPage(1).getResources().getResource(PdfName.Font);
+            assertThat(fonts.keySet()).isNotEmpty();
+            assertThat(fonts.keySet())
+                    .extracting(name -> fonts.getAsDictionary(name).getAsName(PdfName.BaseFont).getValue())
+                    .allMatch(baseFont -> baseFont.matches("[A-Z]{6}\\+.*"));
+        }
+    }
+
+    private static String extractText(byte[] pdf) throws Exception {
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+            assertThat(document.getNumberOfPages()).isPositive();
+            StringBuilder text = new StringBuilder();
+            for (int page = 1; page <= document.getNumberOfPages(); page++) {
+                text.append(PdfTextExtractor.getTextFromPage(document.getPage(page))).append('\n');
+            }
+            return text.toString();
+        }
+    }
+
+    private static final class ClosingTrackingStream extends ByteArrayOutputStream {
+        private boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static InvoiceResponse invoice(String number, String studentName, int itemCount) {
+        List<InvoiceItem> items = IntStream.rangeClosed(1, itemCount)
+                .mapToObj(i -> InvoiceItem.builder()
+                        .date(String.format("%02d/03/2025", i % 28 + 1))
+                        .description("Buổi học tiếng Anh")
+                        .sessions(1)
+                        .hours(2)
+                        .pricePerHour(100L)
+                        .amount(200L)
+                        .build())
+                .toList();
+        return InvoiceResponse.builder()
+                .invoiceNumber(number)
+                .studentName(studentName)
+                .month("Tháng 03/2025")
+                .totalSessions(itemCount)
+                .totalHours(itemCount * 2)
+                .totalAmount(itemCount * 200L)
+                .items(items)
+                .bankInfo(BankInfo.getDefault())
+                .qrPayload(VietQrPayload.build("970436", "1041819355", itemCount * 200L, number.replace("-", "")))
+                .createdDate("05/03/2025")
+                .build();
+    }
+}
@@ -0,0 +1,133 @@
+package com.tutor_management.backend.service;
+
+import com.tutor_management.backend.dto.request.SessionRecordFilter;
+import com.tutor_management.backend.dto.request.SessionRecordRequest;
+import com.tutor_management.backend.dto.request.StudentRequest;
+import com.tutor_management.backend.dto.response.SessionRecordPage;
+import com.tutor_management.backend.dto.response.SessionRecordResponse;
+import com.tutor_management.backend.support.TestDatabase;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SessionRecordPageTest {
+
+    @Autowired
+    private SessionRecordService sessionRecordService;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        TestDatabase.clean(jdbcTemplate);
+    }
+
+    @Test
+    void cursorWalksAllRecordsOnceEvenWhenCreatedAtTies() {
+        Long studentId = createStudent("An");
+        List<Long> ids = new ArrayList<>();
+        for (int day = 1; day <= 5; day++) {
+            ids.add(createSession(studentId, "2025-01", day).getId());
+        }
+        // Cùng createdAt: thứ tự phải dựa vào id
+        jdbcTemplate.update("UPDATE session_records SET created_at = TIMESTAMP '2025-01-10 08:00:00'");
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            SessionRecordPage page = sessionRecordService.getRecordsPage(new SessionRecordFilter(), cursor, 2);
+            page.getItems().forEach(item -> seen.add(item.getId()));
+            cursor = page.getNextCursor();
+            assertThat(page.getHasMore()).isEqualTo(cursor != null);
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).containsExactlyElementsOf(ids.reversed());
+    }
+
+    @Test
+    void filtersAreCombinedAndPageIsOneQuery() {
+        Long an = createStudent("An");
+        Long binh = createStudent("Bình");
+        createSession(an, "2025-01", 3);
+        Long paidFeb = createSession(an, "2025-02", 4).getId();
+        createSession(an, "2025-02", 20);
+        createSession(an, "2025-03", 2);
+        createSession(binh, "2025-02", 5);
+        sessionRecordService.togglePayment(paidFeb);
+
+        SessionRecordFilter filter = SessionRecordFilter.builder()
+                .studentId(an)
+                .fromMonth("2025-02")
+                .toMonth("2025-03")
+                .paid(false)
+                .build();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        SessionRecordPage page = sessionRecordService.getRecordsPage(filter, null, null);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(page.getItems())
+                .extracting(SessionRecordResponse::getSessionDate)
+                .containsExactlyInAnyOrder("2025-02-20", "2025-03-02");
+        assertThat(page.getItems()).allMatch(item -> "An".equals(item.getStudentName()));
+        assertThat(page.getHasMore()).isFalse();
+
+        SessionRecordFilter byDate = SessionRecordFilter.builder()
+                .fromDate(LocalDate.parse("2025-02-04"))
+                .toDate(LocalDate.parse("2025-02-05"))
+                .build();
+        assertThat(sessionRecordService.getRecordsPage(byDate, null, null).getItems())
+                .extracting(SessionRecordResponse::getSessionDate)
+                .containsExactlyInAnyOrder("2025-02-04", "2025-02-05");
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        for (String cursor : List.of("%%%", encode("2025-01-01T00:00"), encode("2025-01-01T00:00|x"),
+                encode("yesterday|1"), encode("2025-01-01T00:00|1|2"))) {
+            assertThatThrownBy(() -> sessionRecordService.getRecordsPage(new SessionRecordFilter(), cursor, 10))
+                    .hasMessage("Invalid cursor");
+        }
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Long createStudent(String name) {
+        return studentService.createStudent(
+                new StudentRequest(name, null, "T2", 100L, null, true, "2025-01")).getId();
+    }
+
+    private SessionRecordResponse createSession(Long studentId, String month, int day) {
+        return sessionRecordService.createRecord(new SessionRecordRequest(
+                studentId, month, 1, 2.0, String.format("%s-%02d", month, day), null));
+    }
+}
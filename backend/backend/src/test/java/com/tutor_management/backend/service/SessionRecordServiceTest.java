@@ -0,0 +1,185 @@
+package com.tutor_management.backend.service;
+
+import com.tutor_management.backend.dto.request.BulkPaymentRequest;
+import com.tutor_management.backend.dto.request.SessionRecordRequest;
+import com.tutor_management.backend.dto.request.StudentRequest;
+import com.tutor_management.backend.dto.response.BulkPaymentResponse;
+import com.tutor_management.backend.dto.response.SessionRecordBatchResponse;
+import com.tutor_management.backend.dto.response.SessionRecordResponse;
+import com.tutor_management.backend.support.TestDatabase;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SessionRecordServiceTest {
+
+    @Autowired
+    private SessionRecordService sessionRecordService;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        TestDatabase.clean(jdbcTemplate);
+    }
+
+    @Test
+    void listsAreReadAsProjectionsWithoutLoadingStudents() {
+        for (String name : List.of("An", "Bình", "Chi")) {
+            Long studentId = createStudent(name, 100L);
+            createSession(studentId, "2025-01", "2025-01-05", 1);
+            createSession(studentId, "2025-02", "2025-02-05", 1);
+        }
+
+        statistics.clear();
+        List<SessionRecordResponse> all = sessionRecordService.getAllRecords();
+        List<SessionRecordResponse> february = sessionRecordService.getRecordsByMonth("2025-02");
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(all).hasSize(6);
+        assertThat(february).hasSize(3)
+                .extracting(SessionRecordResponse::getStudentName)
+                .containsExactlyInAnyOrder("An", "Bình", "Chi");
+        assertThat(february).allSatisfy(record -> {
+            assertThat(record.getSessionDate()).isEqualTo("2025-02-05");
+            assertThat(record.getTotalAmount()).isEqualTo(200L);
+            assertThat(record.getCreatedAt()).isNotBlank();
+        });
+    }
+
+    @Test
+    void batchCreateInsertsValidItemsAndReportsFailuresInOrder() {
+        Long an = createStudent("An", 100L);
+        List<SessionRecordRequest> requests = new ArrayList<>();
+        for (int day = 1; day <= 20; day++) {
+            requests.add(new SessionRecordRequest(an, "2025-04", 1, 2.0, String.format("2025-04-%02d", day), null));
+        }
+        requests.add(5, new SessionRecordRequest(999_999L, "2025-04", 1, 2.0, "2025-04-01", null));
+        requests.add(new SessionRecordRequest(an, "2025-04", 1, 2.0, "not-a-date", null));
+
+        statistics.clear();
+        SessionRecordBatchResponse response = sessionRecordService.createRecords(requests);
+
+        assertThat(response.getCreated()).isEqualTo(20);
+        assertThat(response.getFailed()).isEqualTo(2);
+        assertThat(response.getResults()).extracting(SessionRecordBatchResponse.ItemResult::getIndex)
+                .containsExactlyElementsOf(IntStream.range(0, 22).boxed().toList());
+        assertThat(response.getResults().get(5).getError()).isEqualTo("Student not found");
+        assertThat(response.getResults().get(21).getError()).startsWith("Invalid session date");
+        assertThat(response.getResults()).filteredOn(SessionRecordBatchResponse.ItemResult::getSuccess)
+                .extracting(item -> item.getRecord().getId())
+                .doesNotHaveDuplicates()
+                .hasSize(20);
+        // 20 INSERT dùng chung 1 PreparedStatement (JDBC batch), id lấy theo block từ sequence
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(20);
+        assertThat(studentService.getStudentById(an).getTotalUnpaid()).isEqualTo(20 * 200L);
+    }
+
+    @Test
+    void markMonthPaidUpdatesOnlySelectedStudentsInMonth() {
+        Long an = createStudent("An", 100L);
+        Long binh = createStudent("Bình", 200L);
+        Long chi = createStudent("Chi", 300L);
+        Long alreadyPaid = createSession(an, "2025-05", "2025-05-02", 1).getId();
+        createSession(an, "2025-05", "2025-05-09", 2);
+        createSession(an, "2025-06", "2025-06-02", 1);
+        createSession(binh, "2025-05", "2025-05-03", 1);
+        createSession(chi, "2025-05", "2025-05-04", 1);
+        sessionRecordService.togglePayment(alreadyPaid);
+
+        BulkPaymentResponse response = sessionRecordService.markMonthPaid(
+                new BulkPaymentRequest("2025-05", List.of(an, binh, binh), true));
+
+        // Session đã thanh toán sẵn không bị tính lại
+        assertThat(response.getUpdatedCount()).isEqualTo(2);
+        assertThat(response.getMonthTotalPaid()).isEqualTo(200L + 400L + 400L);
+        assertThat(response.getMonthTotalUnpaid()).isZero();
+        assertThat(response.getStudents()).hasSize(2);
+        assertThat(studentService.getStudentById(an).getTotalPaid()).isEqualTo(600L);
+        assertThat(studentService.getStudentById(an).getTotalUnpaid()).isEqualTo(200L); // tháng 6
+        assertThat(studentService.getStudentById(binh).getTotalPaid()).isEqualTo(400L);
+        assertThat(studentService.getStudentById(chi).getTotalPaid()).isZero();
+        assertThat(studentService.getStudentById(chi).getTotalUnpaid()).isEqualTo(600L);
+
+        BulkPaymentResponse undo = sessionRecordService.markMonthPaid(
+                new BulkPaymentRequest("2025-05", List.of(binh), false));
+        assertThat(undo.getUpdatedCount()).isEqualTo(1);
+        assertThat(studentService.getStudentById(binh).getTotalUnpaid()).isEqualTo(400L);
+    }
+
+    @Test
+    void concurrentTogglesMoveTheAmountOncePerToggle() throws Exception {
+        Long an = createStudent("An", 100L);
+        Long id = createSession(an, "2025-05", "2025-05-02", 1).getId();
+        int toggles = 7;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(toggles);
+        try {
+            List<CompletableFuture<SessionRecordResponse>> futures = IntStream.range(0, toggles)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return sessionRecordService.togglePayment(id);
+                    }, executor))
+                    .toList();
+            start.countDown();
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        // Số lần đổi lẻ: cuối cùng đã thanh toán, tổng của học sinh khớp với session
+        assertThat(sessionRecordService.getRecordsByMonth("2025-05"))
+                .singleElement()
+                .satisfies(record -> assertThat(record.getPaid()).isTrue());
+        assertThat(studentService.getStudentById(an).getTotalPaid()).isEqualTo(200L);
+        assertThat(studentService.getStudentById(an).getTotalUnpaid()).isZero();
+    }
+
+    private Long createStudent(String name, Long pricePerHour) {
+        return studentService.createStudent(
+                new StudentRequest(name, null, "T2", pricePerHour, null, true, "2025-01")).getId();
+    }
+
+    private SessionRecordResponse createSession(Long studentId, String month, String date, int sessions) {
+        return sessionRecordService.createRecord(
+                new SessionRecordRequest(studentId, month, sessions, 2.0, date, null));
+    }
+}
@@ -0,0 +1,88 @@
+package com.tutor_management.backend.service;
+
+import com.tutor_management.backend.dto.request.SessionRecordRequest;
+import com.tutor_management.backend.dto.request.StudentRequest;
+import com.tutor_management.backend.support.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StatsCacheTest {
+
+    @Autowired
+    private StatsCache statsCache;
+
+    @Autowired
+    private SessionRecordService sessionRecordService;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        TestDatabase.clean(jdbcTemplate);
+    }
+
+    @Test
+    void committedSessionWriteInvalidatesDashboardOnly() {
+        Long studentId = createStudent("An");
+        AtomicInteger loads = new AtomicInteger();
+        String dashboardEtag = statsCache.etag(StatsCache.Region.DASHBOARD, "monthly");
+        String documentsEtag = statsCache.etag(StatsCache.Region.DOCUMENTS, "stats");
+
+        statsCache.get(StatsCache.Region.DASHBOARD, "monthly", loads::incrementAndGet);
+        statsCache.get(StatsCache.Region.DASHBOARD, "monthly", loads::incrementAndGet);
+        assertThat(loads).hasValue(1);
+        assertThat(statsCache.etag(StatsCache.Region.DASHBOARD, "monthly")).isEqualTo(dashboardEtag);
+
+        createSession(studentId);
+
+        assertThat(statsCache.etag(StatsCache.Region.DASHBOARD, "monthly")).isNotEqualTo(dashboardEtag);
+        assertThat(statsCache.etag(StatsCache.Region.DOCUMENTS, "stats")).isEqualTo(documentsEtag);
+        assertThat(statsCache.<Integer>get(StatsCache.Region.DASHBOARD, "monthly", loads::incrementAndGet)).isEqualTo(2);
+    }
+
+    @Test
+    void rolledBackWriteKeepsCachedValue() {
+        Long studentId = createStudent("An");
+        String etag = statsCache.etag(StatsCache.Region.DASHBOARD, "monthly");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            createSession(studentId);
+            status.setRollbackOnly();
+        });
+
+        assertThat(statsCache.etag(StatsCache.Region.DASHBOARD, "monthly")).isEqualTo(etag);
+    }
+
+    @Test
+    void etagDiffersPerKey() {
+        assertThat(statsCache.etag(StatsCache.Region.DASHBOARD, "stats:2025-01"))
+                .isNotEqualTo(statsCache.etag(StatsCache.Region.DASHBOARD, "stats:2025-02"));
+    }
+
+    private Long createStudent(String name) {
+        return studentService.createStudent(
+                new StudentRequest(name, null, "T2", 100L, null, true, "2025-01")).getId();
+    }
+
+    private void createSession(Long studentId) {
+        sessionRecordService.createRecord(new SessionRecordRequest(studentId, "2025-03", 1, 2.0, "2025-03-05", null));
+    }
+}
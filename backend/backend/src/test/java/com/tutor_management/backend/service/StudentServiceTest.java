@@ -0,0 +1,126 @@
+package com.tutor_management.backend.service;
+
+import com.tutor_management.backend.dto.request.SessionRecordRequest;
+import com.tutor_management.backend.dto.request.StudentRequest;
+import com.tutor_management.backend.dto.response.SessionRecordResponse;
+import com.tutor_management.backend.dto.response.StudentResponse;
+import com.tutor_management.backend.entity.Student;
+import com.tutor_management.backend.repository.StudentRepository;
+import com.tutor_management.backend.support.TestDatabase;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StudentServiceTest {
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private SessionRecordService sessionRecordService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        TestDatabase.clean(jdbcTemplate);
+    }
+
+    @Test
+    void rosterLoadsAllStudentsWithTotalsInOneQuery() {
+        Long an = createStudent("An", 100L);
+        Long binh = createStudent("Bình", 200L);
+        createStudent("Chi", 300L);
+        Long paidRecord = createSession(an, "2025-01", 2).getId();
+        createSession(an, "2025-02", 1);
+        createSession(binh, "2025-01", 1);
+        sessionRecordService.togglePayment(paidRecord);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<StudentResponse> roster = studentService.getAllStudents();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        Map<String, StudentResponse> byName = roster.stream()
+                .collect(Collectors.toMap(StudentResponse::getName, Function.identity()));
+        assertThat(byName).hasSize(3);
+        assertThat(byName.get("An").getTotalPaid()).isEqualTo(400L);
+        assertThat(byName.get("An").getTotalUnpaid()).isEqualTo(200L);
+        assertThat(byName.get("Bình").getTotalPaid()).isZero();
+        assertThat(byName.get("Bình").getTotalUnpaid()).isEqualTo(400L);
+        assertThat(byName.get("Chi").getTotalPaid()).isZero();
+        assertThat(byName.get("Chi").getTotalUnpaid()).isZero();
+    }
+
+    @Test
+    void updateStudentDoesNotOverwriteTotalsWrittenByConcurrentSession() {
+        Long id = createStudent("An", 100L);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // Nạp học sinh (totals = 0) trước khi transaction khác ghi session
+            Student stale = studentRepository.findById(id).orElseThrow();
+            assertThat(stale.getTotalUnpaid()).isZero();
+
+            CompletableFuture.runAsync(() -> createSession(id, "2025-03", 1)).join();
+
+            studentService.updateStudent(id, new StudentRequest("An Nguyễn", null, "T3", 100L, null, true, null));
+        });
+
+        StudentResponse student = studentService.getStudentById(id);
+        assertThat(student.getName()).isEqualTo("An Nguyễn");
+        assertThat(student.getTotalUnpaid()).isEqualTo(200L);
+        assertThat(student.getLastActiveMonth()).isEqualTo("2025-03");
+    }
+
+    @Test
+    void rebuildSessionSummariesRepairsDriftedTotals() {
+        Long id = createStudent("An", 100L);
+        createSession(id, "2025-01", 1);
+        sessionRecordService.togglePayment(createSession(id, "2025-02", 2).getId());
+        jdbcTemplate.update("UPDATE students SET total_paid = 1, total_unpaid = 2, last_active_month = NULL WHERE id = ?", id);
+
+        studentService.rebuildSessionSummaries();
+
+        StudentResponse student = studentService.getStudentById(id);
+        assertThat(student.getTotalPaid()).isEqualTo(400L);
+        assertThat(student.getTotalUnpaid()).isEqualTo(200L);
+        assertThat(student.getLastActiveMonth()).isEqualTo("2025-02");
+    }
+
+    private Long createStudent(String name, Long pricePerHour) {
+        return studentService.createStudent(
+                new StudentRequest(name, null, "T2", pricePerHour, null, true, "2025-01")).getId();
+    }
+
+    private SessionRecordResponse createSession(Long studentId, String month, int sessions) {
+        return sessionRecordService.createRecord(
+                new SessionRecordRequest(studentId, month, sessions, 2.0, month + "-05", null));
+    }
+}
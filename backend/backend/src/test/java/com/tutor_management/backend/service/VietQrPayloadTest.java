@@ -0,0 +1,39 @@
+package com.tutor_management.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VietQrPayloadTest {
+
+    @Test
+    void crc16MatchesCcittFalseCheckValue() {
+        assertThat(VietQrPayload.crc16("123456789")).isEqualTo(0x29B1);
+        assertThat(VietQrPayload.crc16("")).isEqualTo(0xFFFF);
+    }
+
+    @Test
+    void payloadHasEmvcoFieldsAndTrailingCrc() {
+        String payload = VietQrPayload.build("970436", "1041819355", 200000, "INV202503001");
+
+        String expectedBody = "000201"
+                + "010212"
+                + "3854" + "0010A000000727" + "0124" + "0006970436" + "01101041819355" + "0208QRIBFTTA"
+                + "5303704"
+                + "5406200000"
+                + "5802VN"
+                + "6216" + "0812INV202503001"
+                + "6304";
+        assertThat(payload).startsWith(expectedBody).hasSize(expectedBody.length() + 4);
+        assertThat(payload.substring(expectedBody.length()))
+                .isEqualTo(String.format("%04X", VietQrPayload.crc16(expectedBody)));
+    }
+
+    @Test
+    void purposeIsTruncatedToTwentyFiveCharacters() {
+        String payload = VietQrPayload.build("970436", "1041819355", 1, "INV2025030010000000000000MULTI");
+
+        assertThat(payload).contains("62290825INV2025030010000000000000")
+                .doesNotContain("MULTI");
+    }
+}
@@ -0,0 +1,25 @@
+package com.tutor_management.backend.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+// Các test dùng chung 1 context Spring (và 1 database H2): xoá sạch dữ liệu sau mỗi test
+public final class TestDatabase {
+
+    private TestDatabase() {
+    }
+
+    public static void clean(JdbcTemplate jdbcTemplate) {
+        List<String> tables = jdbcTemplate.queryForList(
+                "SELECT table_name FROM information_schema.tables " +
+                        "WHERE table_schema = 'public' AND table_type = 'BASE TABLE'",
+                String.class);
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        try {
+            tables.forEach(table -> jdbcTemplate.execute("TRUNCATE TABLE " + table));
+        } finally {
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        }
+    }
+}
@@ -27,11 +27,39 @@ export default function Dashboard() {
 
   useEffect(() => {
     loadData();
+
+    // Server đẩy thay đổi qua SSE, không cần polling
+    const unsubscribe = dashboardApi.subscribe((type, delta) => {
+      if (delta.months) {
+        const changed = delta.months;
+        setMonthlyStats((prev) =>
+          [
+            ...prev.filter((m) => !changed.some((c) => c.month === m.month)),
+            ...changed.filter((c) => c.totalSessions > 0),
+          ].sort((a, b) => b.month.localeCompare(a.month))
+        );
+      }
+      if (type === 'sessions') {
+        refreshStats();
+      } else if (type !== 'documents') {
+        // Request có ETag nên phần không đổi chỉ trả về 304
+        loadData(false);
+      }
+    });
+    return unsubscribe;
   }, []);
 
-  const loadData = async () => {
+  const refreshStats = async () => {
+    try {
+      setStats(await dashboardApi.getStats(currentMonth));
+    } catch (error) {
+      console.error('Error refreshing dashboard stats:', error);
+    }
+  };
+
+  const loadData = async (showLoading = true) => {
     try {
-      setLoading(true);
+      if (showLoading) setLoading(true);
       const [statsData, monthlyData] = await Promise.all([
         dashboardApi.getStats(currentMonth),
         dashboardApi.getMonthlyStats(),
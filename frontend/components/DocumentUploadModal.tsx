@@ -61,8 +61,8 @@ export default function DocumentUploadModal({
         return;
       }
 
-      if (file.size > 50 * 1024 * 1024) {
-        alert('Kích thước file không được vượt quá 50MB');
+      if (file.size > 2 * 1024 * 1024 * 1024) {
+        alert('Kích thước file không được vượt quá 2GB');
         return;
       }
 
@@ -92,19 +92,9 @@ export default function DocumentUploadModal({
       setLoading(true);
       setUploadProgress(0);
 
-      const progressInterval = setInterval(() => {
-        setUploadProgress((prev) => {
-          if (prev >= 90) {
-            clearInterval(progressInterval);
-            return 90;
-          }
-          return prev + 10;
-        });
-      }, 200);
+      // Upload chia chunk: tiến độ thật, mất mạng thì chọn lại file để tải tiếp
+      await documentsApi.uploadChunked(selectedFile, formData, setUploadProgress);
 
-      await documentsApi.upload(selectedFile, formData);
-
-      clearInterval(progressInterval);
       setUploadProgress(100);
 
       setTimeout(() => {
@@ -112,7 +102,7 @@ export default function DocumentUploadModal({
       }, 500);
     } catch (error) {
       console.error('Error uploading document:', error);
-      alert('Không thể tải lên tài liệu!');
+      alert('Không thể tải lên tài liệu! Chọn lại file để tải tiếp phần còn thiếu.');
     } finally {
       setLoading(false);
     }
@@ -188,7 +178,7 @@ export default function DocumentUploadModal({
                       Click để chọn file hoặc kéo thả file vào đây
                     </p>
                     <p className="text-xs text-gray-500">
-                      PDF, DOC, DOCX, PPT, PPTX, TXT (Max 50MB)
+                      PDF, DOC, DOCX, PPT, PPTX, TXT (Max 2GB)
                     </p>
                   </>
                 )}
@@ -182,6 +182,32 @@ export default function MonthlyView() {
     }
   };
 
+  const handleDownloadInvoiceBatch = async () => {
+    try {
+      setGeneratingInvoice(true);
+
+      // Không chọn ai = tất cả học sinh còn buổi chưa thanh toán
+      const response = await invoicesApi.downloadInvoiceBatchZip(
+        selectedMonth,
+        selectedStudents.length > 0 ? selectedStudents : undefined
+      );
+
+      const url = window.URL.createObjectURL(new Blob([response]));
+      const link = document.createElement('a');
+      link.href = url;
+      link.setAttribute('download', `Bao-Gia-${selectedMonth}.zip`);
+      document.body.appendChild(link);
+      link.click();
+      link.remove();
+      window.URL.revokeObjectURL(url);
+    } catch (error) {
+      console.error('Error downloading invoice batch:', error);
+      alert('Không thể tạo báo giá hàng loạt!');
+    } finally {
+      setGeneratingInvoice(false);
+    }
+  };
+
   // Group by student
   const groupedRecords = records.reduce((acc, record) => {
     const key = record.studentId;
@@ -351,6 +377,17 @@ export default function MonthlyView() {
               </>
             )}
           </button>
+
+          <button
+            onClick={handleDownloadInvoiceBatch}
+            disabled={generatingInvoice}
+            className="w-full mt-3 bg-white hover:bg-blue-50 text-indigo-700 font-semibold py-3 px-6 rounded-xl border-2 border-indigo-200 transition-colors flex items-center justify-center gap-3 disabled:opacity-50 disabled:cursor-not-allowed"
+          >
+            <FileText size={20} />
+            {selectedStudents.length > 0
+              ? `Tải báo giá riêng từng em (${selectedStudents.length} học sinh, ZIP)`
+              : 'Tải báo giá riêng cho tất cả học sinh (ZIP)'}
+          </button>
           
           <p className="text-sm text-gray-500 mt-3 text-center">
             Lưu ý: Chọn nhiều học sinh để tạo một báo giá chung cho phụ huynh có nhiều con học cùng lúc
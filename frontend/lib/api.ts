@@ -5,13 +5,21 @@ import type {
   StudentRequest,
   SessionRecord,
   SessionRecordRequest,
+  SessionRecordFilter,
+  SessionRecordPage,
+  BulkPaymentRequest,
+  BulkPaymentResponse,
   DashboardStats,
   MonthlyStats,
+  DashboardDelta,
+  DashboardEventType,
   DocumentCategory,
   DocumentStats,
   DocumentUploadRequest,
+  DocumentUploadSession,
   InvoiceRequest,
   InvoiceResponse,
+  InvoiceJob,
 } from './types';
 
 const API_URL = process.env.NEXT_PUBLIC_API_URL || 'http://localhost:8080/api';
@@ -56,6 +64,16 @@ export const sessionsApi = {
     const response = await api.get('/sessions');
     return response.data;
   },
+  getPage: async (
+    filter: SessionRecordFilter = {},
+    cursor?: string,
+    size?: number
+  ): Promise<SessionRecordPage> => {
+    const response = await api.get('/sessions/page', {
+      params: { ...filter, cursor, size }
+    });
+    return response.data;
+  },
   getByMonth: async (month: string): Promise<SessionRecord[]> => {
     const response = await api.get(`/sessions/month/${month}`);
     return response.data;
@@ -72,6 +90,10 @@ export const sessionsApi = {
     const response = await api.put(`/sessions/${id}/toggle-payment`);
     return response.data;
   },
+  markMonthPaid: async (data: BulkPaymentRequest): Promise<BulkPaymentResponse> => {
+    const response = await api.put('/sessions/mark-paid', data);
+    return response.data;
+  },
   delete: async (id: number): Promise<void> => {
     await api.delete(`/sessions/${id}`);
   },
@@ -89,6 +111,17 @@ export const dashboardApi = {
     const response = await api.get('/dashboard/monthly-stats');
     return response.data;
   },
+  // Nhận thay đổi qua Server-Sent Events; trả về hàm huỷ đăng ký
+  subscribe: (onEvent: (type: DashboardEventType, delta: DashboardDelta) => void): (() => void) => {
+    const source = new EventSource(`${API_URL}/dashboard/events`);
+    const types: DashboardEventType[] = ['sessions', 'students', 'documents', 'resync'];
+    types.forEach((type) => {
+      source.addEventListener(type, (event) => {
+        onEvent(type, JSON.parse((event as MessageEvent).data || '{}'));
+      });
+    });
+    return () => source.close();
+  },
 };
 
 // Documents API
@@ -118,6 +151,71 @@ export const documentsApi = {
     });
     return response.data;
   },
+  // Upload chia chunk cho file lớn: phiên được nhớ trong localStorage, chọn lại đúng file thì chỉ gửi chunk còn thiếu
+  uploadChunked: async (
+    file: File,
+    data: DocumentUploadRequest,
+    onProgress?: (percent: number) => void
+  ): Promise<any> => {
+    const resumeKey = `document-upload:${file.name}:${file.size}:${file.lastModified}`;
+    let session: DocumentUploadSession | null = null;
+
+    const savedId = localStorage.getItem(resumeKey);
+    if (savedId) {
+      try {
+        session = (await api.get(`/documents/uploads/${savedId}`)).data;
+      } catch {
+        localStorage.removeItem(resumeKey); // Phiên đã hết hạn
+      }
+    }
+    if (!session) {
+      session = (await api.post('/documents/uploads', {
+        ...data,
+        fileName: file.name,
+        fileType: file.type,
+        fileSize: file.size,
+      })).data as DocumentUploadSession;
+      localStorage.setItem(resumeKey, session.uploadId);
+    }
+
+    const { uploadId, chunkSize, totalChunks } = session;
+    const received = new Set<number>();
+    session.receivedChunks.forEach(({ first, last }) => {
+      for (let i = first; i <= last; i++) received.add(i);
+    });
+    const pending = Array.from({ length: totalChunks }, (_, i) => i).filter((i) => !received.has(i));
+
+    let sentBytes = session.receivedBytes;
+    onProgress?.(Math.round((sentBytes / file.size) * 100));
+
+    // Gửi vài chunk song song, mỗi chunk thử lại tối đa 3 lần
+    const sendChunk = async (index: number) => {
+      const chunk = file.slice(index * chunkSize, Math.min(file.size, (index + 1) * chunkSize));
+      for (let attempt = 1; ; attempt++) {
+        try {
+          await api.put(`/documents/uploads/${uploadId}/chunks/${index}`, chunk, {
+            headers: { 'Content-Type': 'application/octet-stream' },
+          });
+          break;
+        } catch (error) {
+          if (attempt >= 3) throw error;
+          await new Promise((resolve) => setTimeout(resolve, 1000 * attempt));
+        }
+      }
+      sentBytes += chunk.size;
+      onProgress?.(Math.round((sentBytes / file.size) * 100));
+    };
+    const workers = Array.from({ length: Math.min(3, pending.length) }, async () => {
+      for (let index = pending.shift(); index !== undefined; index = pending.shift()) {
+        await sendChunk(index);
+      }
+    });
+    await Promise.all(workers);
+
+    const response = await api.post(`/documents/uploads/${uploadId}/complete`);
+    localStorage.removeItem(resumeKey);
+    return response.data;
+  },
   download: async (id: number): Promise<Blob> => {
     const response = await api.get(`/documents/${id}/download`, { 
       responseType: 'blob' 
@@ -161,6 +259,39 @@ export const invoicesApi = {
     return response.data;
   },
 
+  // Báo giá riêng cho từng học sinh trong tháng, tải về 1 file ZIP
+  downloadInvoiceBatchZip: async (month: string, studentIds?: number[]): Promise<Blob> => {
+    const response = await api.post('/invoices/download-batch', { month, studentIds }, {
+      responseType: 'blob',
+    });
+    return response.data;
+  },
+
+  // Job chạy nền: gửi yêu cầu, poll getJob tới khi COMPLETED rồi tải ZIP
+  submitInvoiceJob: async (month: string, studentIds?: number[]): Promise<InvoiceJob> => {
+    const response = await api.post('/invoices/jobs', { month, studentIds });
+    return response.data;
+  },
+
+  getInvoiceJob: async (id: number): Promise<InvoiceJob> => {
+    const response = await api.get(`/invoices/jobs/${id}`);
+    return response.data;
+  },
+
+  downloadInvoiceJobItem: async (id: number, itemId: number): Promise<Blob> => {
+    const response = await api.get(`/invoices/jobs/${id}/items/${itemId}/pdf`, {
+      responseType: 'blob',
+    });
+    return response.data;
+  },
+
+  downloadInvoiceJob: async (id: number): Promise<Blob> => {
+    const response = await api.get(`/invoices/jobs/${id}/download`, {
+      responseType: 'blob',
+    });
+    return response.data;
+  },
+
   // HOẶC dùng phương pháp 1 với allStudents flag
   downloadMonthlyInvoicePDFAlt: async (month: string): Promise<Blob> => {
     const response = await api.post('/invoices/download-pdf', {
@@ -43,6 +43,41 @@ export interface SessionRecord {
   createdAt: string;
 }
 
+export interface SessionRecordFilter {
+  studentId?: number;
+  fromMonth?: string;
+  toMonth?: string;
+  paid?: boolean;
+  fromDate?: string;
+  toDate?: string;
+}
+
+export interface SessionRecordPage {
+  items: SessionRecord[];
+  nextCursor?: string;
+  hasMore: boolean;
+}
+
+export interface BulkPaymentRequest {
+  month: string;
+  studentIds: number[];
+  paid: boolean;
+}
+
+export interface BulkPaymentResponse {
+  month: string;
+  paid: boolean;
+  updatedCount: number;
+  monthTotalPaid: number;
+  monthTotalUnpaid: number;
+  students: {
+    studentId: number;
+    totalPaid: number;
+    totalUnpaid: number;
+    lastActiveMonth?: string;
+  }[];
+}
+
 export interface SessionRecordRequest {
   studentId: number;
   month: string;
@@ -67,6 +102,21 @@ export interface MonthlyStats {
   totalSessions: number;
 }
 
+export interface DashboardDelta {
+  students?: {
+    studentId: number;
+    totalPaid: number;
+    totalUnpaid: number;
+    lastActiveMonth?: string;
+  }[];
+  removedStudentIds?: number[];
+  totalStudents?: number;
+  months?: MonthlyStats[];
+  totalDocuments?: number;
+}
+
+export type DashboardEventType = 'sessions' | 'students' | 'documents' | 'resync';
+
 // export interface InvoiceRequest {
 //   studentId?: number; // Optional - nếu không có thì là báo giá tổng
 //   month: string;
@@ -106,6 +156,31 @@ export interface InvoiceItem {
   amount: number;
 }
 
+export type InvoiceJobStatus = 'QUEUED' | 'RUNNING' | 'COMPLETED' | 'FAILED';
+
+export interface InvoiceJobItem {
+  id: number;
+  studentId: number;
+  studentName: string | null;
+  status: 'PENDING' | 'DONE' | 'FAILED';
+  invoiceNumber: string | null; // null cho tới khi DONE
+  error: string | null;
+}
+
+export interface InvoiceJob {
+  id: number;
+  month: string;
+  status: InvoiceJobStatus;
+  totalItems: number;
+  completedItems: number;
+  failedItems: number;
+  error: string | null;
+  createdAt: string;
+  startedAt: string | null;
+  finishedAt: string | null;
+  items: InvoiceJobItem[];
+}
+
 export interface BankInfo {
   bankName: string;
   accountNumber: string;
@@ -143,6 +218,17 @@ export interface DocumentUploadRequest {
   studentId?: number;
 }
 
+export interface DocumentUploadSession {
+  uploadId: string;
+  fileName: string;
+  fileSize: number;
+  chunkSize: number;
+  totalChunks: number;
+  receivedBytes: number;
+  receivedChunks: { first: number; last: number }[]; // Các đoạn chunk đã nhận (bao gồm last)
+  complete: boolean;
+}
+
 export interface DocumentStats {
   totalDocuments: number;
   totalSize: number;